@@ -0,0 +1,83 @@
+package com.amsidh.mvc.common.deadline;
+
+import io.micrometer.context.ContextRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point in time after which the caller of the current request no longer wants the answer.
+ * The deadline travels between services as the remaining milliseconds in {@link #HEADER},
+ * so the clocks of caller and callee need not agree. Within a service it is bound to the
+ * request thread and, being registered with the context-propagation registry, follows the
+ * request wherever a context snapshot is taken.
+ */
+public final class Deadline {
+
+    public static final String HEADER = "X-Deadline-Ms";
+    public static final String EXPIRED_METRIC = "deadline.expired";
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    static {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(Deadline.class.getName(),
+                CURRENT::get, CURRENT::set, CURRENT::remove);
+    }
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * The deadline of the request bound to this thread, or null if it has none
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    public static void bind(Deadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Throw if the request bound to this thread is past its deadline
+     *
+     * @param stage where the work was abandoned, reported by the exception
+     */
+    public static void checkNotExpired(String stage) {
+        Deadline deadline = CURRENT.get();
+        if (deadline != null && deadline.isExpired()) {
+            throw new DeadlineExceededException(stage);
+        }
+    }
+
+    public boolean isExpired() {
+        return System.nanoTime() - expiresAtNanos >= 0;
+    }
+
+    /**
+     * @return milliseconds left, 0 once expired
+     */
+    public long remainingMillis() {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(expiresAtNanos - System.nanoTime()));
+    }
+
+    public Duration remaining() {
+        return Duration.ofMillis(remainingMillis());
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline[" + remainingMillis() + " ms left]";
+    }
+}
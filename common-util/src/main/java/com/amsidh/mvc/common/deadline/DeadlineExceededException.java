@@ -0,0 +1,19 @@
+package com.amsidh.mvc.common.deadline;
+
+/**
+ * Thrown instead of starting work the caller's deadline no longer leaves time for.
+ * Expected under overload, so no stack trace is captured.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    private final String stage;
+
+    public DeadlineExceededException(String stage) {
+        super("Deadline exceeded before " + stage, null, false, false);
+        this.stage = stage;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+}
@@ -0,0 +1,100 @@
+package com.amsidh.mvc.common.filter;
+
+import com.amsidh.mvc.common.deadline.Deadline;
+import com.amsidh.mvc.common.deadline.DeadlineExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Binds the request's {@link Deadline} to the request thread: the remaining milliseconds
+ * sent by the caller in {@link Deadline#HEADER}, otherwise the configured default, if any.
+ * A request already past its deadline, such as one that waited in the accept queue, is
+ * answered 504 without being handled; so is one whose handling gave up on its deadline.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final Duration defaultTimeout;
+    private final Counter expiredOnArrival;
+
+    public DeadlineFilter(MeterRegistry meterRegistry,
+            @Value("${common-util.deadline.default:}") Duration defaultTimeout) {
+        this.meterRegistry = meterRegistry;
+        this.defaultTimeout = defaultTimeout;
+        this.expiredOnArrival = expired("arrival");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Deadline deadline = deadline(request);
+        if (deadline == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (deadline.isExpired()) {
+            expiredOnArrival.increment();
+            response.sendError(HttpServletResponse.SC_GATEWAY_TIMEOUT, "Deadline exceeded");
+            return;
+        }
+
+        Deadline.bind(deadline);
+        try {
+            filterChain.doFilter(request, response);
+        } catch (ServletException | RuntimeException e) {
+            DeadlineExceededException exceeded = findDeadlineExceeded(e);
+            if (exceeded == null || response.isCommitted()) {
+                throw e;
+            }
+            expired(exceeded.getStage()).increment();
+            log.debug("Abandoned {} {}: {}", request.getMethod(), request.getRequestURI(), exceeded.getMessage());
+            response.sendError(HttpServletResponse.SC_GATEWAY_TIMEOUT, "Deadline exceeded");
+        } finally {
+            Deadline.clear();
+        }
+    }
+
+    private Deadline deadline(HttpServletRequest request) {
+        String header = request.getHeader(Deadline.HEADER);
+        if (header != null) {
+            try {
+                return Deadline.after(Duration.ofMillis(Long.parseLong(header.trim())));
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring malformed {} header: {}", Deadline.HEADER, header);
+            }
+        }
+        return defaultTimeout != null ? Deadline.after(defaultTimeout) : null;
+    }
+
+    private Counter expired(String stage) {
+        return Counter.builder(Deadline.EXPIRED_METRIC)
+                .description("Work abandoned because the caller's deadline had passed")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    private static DeadlineExceededException findDeadlineExceeded(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeadlineExceededException exceeded) {
+                return exceeded;
+            }
+        }
+        return null;
+    }
+}
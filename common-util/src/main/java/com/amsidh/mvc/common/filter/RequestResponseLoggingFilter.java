@@ -6,61 +6,105 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.util.ContentCachingRequestWrapper;
 import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class RequestResponseLoggingFilter extends OncePerRequestFilter {
 
     private static final String REQUEST_TRACKING_ID_HEADER = "X-Request-Tracking-ID";
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+    // Immutable and thread-safe, unlike SimpleDateFormat, so one instance serves all request threads
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS")
+            .withZone(ZoneId.systemDefault());
     private static final int MAX_PAYLOAD_LENGTH = 10000;
+    private static final String START_TIME_ATTRIBUTE = RequestResponseLoggingFilter.class.getName() + ".START_TIME";
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
 
     private final Tracer tracer;
+    private final List<String> streamingPaths;
+
+    /**
+     * @param streamingPaths Ant patterns of endpoints that stream their request or response body;
+     *                       they are never wrapped, whatever the content type or Accept header
+     */
+    public RequestResponseLoggingFilter(Tracer tracer,
+            @Value("${common-util.logging.streaming-paths:}") List<String> streamingPaths) {
+        this.tracer = tracer;
+        this.streamingPaths = List.copyOf(streamingPaths);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
-        long startTime = System.currentTimeMillis();
-        String startTimeFormatted = DATE_FORMAT.format(new Date(startTime));
-
-        ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper(request);
-        ContentCachingResponseWrapper wrappedResponse = new ContentCachingResponseWrapper(response);
+        // An async request passes through twice; the wrappers and start time of the first pass are reused
+        boolean asyncDispatch = isAsyncDispatch(request);
+        ContentCachingRequestWrapper wrappedRequest = WebUtils.getNativeRequest(request, ContentCachingRequestWrapper.class);
+        if (wrappedRequest == null) {
+            wrappedRequest = new ContentCachingRequestWrapper(request);
+        }
+        ContentCachingResponseWrapper wrappedResponse = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (wrappedResponse == null) {
+            wrappedResponse = new ContentCachingResponseWrapper(response);
+        }
 
-        // Get or generate tracking ID
-        String trackingId = getOrGenerateTrackingId(wrappedRequest, wrappedResponse);
+        long startTime;
+        String trackingId;
+        if (asyncDispatch && request.getAttribute(START_TIME_ATTRIBUTE) instanceof Long start) {
+            startTime = start;
+            trackingId = wrappedResponse.getHeader(REQUEST_TRACKING_ID_HEADER);
+        } else {
+            startTime = System.currentTimeMillis();
+            request.setAttribute(START_TIME_ATTRIBUTE, startTime);
+            // Get or generate tracking ID
+            trackingId = getOrGenerateTrackingId(wrappedRequest, wrappedResponse);
+        }
+        String startTimeFormatted = DATE_FORMAT.format(Instant.ofEpochMilli(startTime));
 
         try {
             // Log incoming request
-            logIncomingRequest(wrappedRequest, startTimeFormatted, trackingId);
+            if (!asyncDispatch) {
+                logIncomingRequest(wrappedRequest, startTimeFormatted, trackingId);
+            }
 
             filterChain.doFilter(wrappedRequest, wrappedResponse);
 
         } finally {
-            long endTime = System.currentTimeMillis();
-            long duration = endTime - startTime;
+            // The body of an async request is only complete after its async dispatch
+            if (!isAsyncStarted(wrappedRequest)) {
+                long endTime = System.currentTimeMillis();
+                long duration = endTime - startTime;
 
-            // Log outgoing response
-            logOutgoingResponse(wrappedRequest, wrappedResponse, startTimeFormatted,
-                    DATE_FORMAT.format(new Date(endTime)), duration, trackingId);
+                // Log outgoing response
+                logOutgoingResponse(wrappedRequest, wrappedResponse, startTimeFormatted,
+                        DATE_FORMAT.format(Instant.ofEpochMilli(endTime)), duration, trackingId);
 
-            wrappedResponse.copyBodyToResponse();
+                wrappedResponse.copyBodyToResponse();
+            }
         }
     }
 
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
     private String getOrGenerateTrackingId(HttpServletRequest request, HttpServletResponse response) {
         // First check if tracking ID exists in request header
         String trackingId = request.getHeader(REQUEST_TRACKING_ID_HEADER);
@@ -286,12 +330,27 @@ public class RequestResponseLoggingFilter extends OncePerRequestFilter {
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
         String path = request.getRequestURI();
-        // Skip actuator endpoints and static resources
-        return path.startsWith("/actuator") ||
+        // Skip actuator endpoints, static resources and streamed bodies (caching would buffer the whole stream)
+        return isStreamingRequest(request) ||
+                path.startsWith("/actuator") ||
                 path.startsWith("/static") ||
                 path.startsWith("/css") ||
                 path.startsWith("/js") ||
                 path.startsWith("/images") ||
                 path.endsWith(".ico");
     }
-}
\ No newline at end of file
+
+    private boolean isStreamingRequest(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String pattern : streamingPaths) {
+            if (PATH_MATCHER.match(pattern, path)) {
+                return true;
+            }
+        }
+        String accept = request.getHeader("Accept");
+        String contentType = request.getContentType();
+        return (accept != null && accept.contains("text/event-stream")) ||
+                (contentType != null && (contentType.startsWith("application/x-ndjson") ||
+                        contentType.startsWith("text/csv")));
+    }
+}
@@ -126,7 +126,7 @@ public class CustomValueEncryptor {
             EncryptionCategory category = entry.getValue();
 
             Matcher matcher = pattern.matcher(processedMessage);
-            StringBuffer sb = new StringBuffer();
+            StringBuilder sb = new StringBuilder();
 
             while (matcher.find()) {
                 // Check if the pattern has the required groups
@@ -90,11 +90,12 @@ public class ServiceMethodLoggingAspect {
 
     private Object maskIfSensitive(Object arg) {
         if (arg == null) return null;
-        String s = String.valueOf(arg).toLowerCase();
-        if (s.contains("password") || s.contains("secret") || s.contains("token")) {
+        String s = String.valueOf(arg);
+        String lower = s.toLowerCase();
+        if (lower.contains("password") || lower.contains("secret") || lower.contains("token")) {
             return "***MASKED***";
         }
-        return arg;
+        return summarizeResult(s); // Batch arguments can hold thousands of items
     }
 
     private Object summarizeResult(Object result) {
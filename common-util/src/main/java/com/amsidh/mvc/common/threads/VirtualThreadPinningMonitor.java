@@ -0,0 +1,86 @@
+package com.amsidh.mvc.common.threads;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier, typically by blocking
+ * inside a synchronized block or a native frame, using the JFR jdk.VirtualThreadPinned event.
+ * Every pin is counted in jvm.threads.virtual.pinned; each distinct stack is logged once.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_REPORTED_STACKS = 100;
+
+    private final Counter pinnedCounter;
+    private final Set<String> reportedStacks = ConcurrentHashMap.newKeySet();
+
+    @Value("${common-util.virtual-threads.pinning-threshold:PT0.02S}")
+    private Duration threshold;
+
+    @Value("${common-util.virtual-threads.pinning-stack-depth:8}")
+    private int stackDepth;
+
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry) {
+        this.pinnedCounter = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads pinned to their carrier for longer than the threshold")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        try {
+            recordingStream = new RecordingStream();
+            recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+            recordingStream.startAsync();
+            log.info("Virtual thread pinning monitor started, threshold {}", threshold);
+        } catch (RuntimeException e) {
+            log.warn("Virtual thread pinning monitor unavailable: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedCounter.increment();
+        if (event.getStackTrace() == null || reportedStacks.size() >= MAX_REPORTED_STACKS) {
+            return;
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        String stack = frames.stream()
+                .limit(stackDepth)
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .collect(Collectors.joining(" <- "));
+        if (reportedStacks.add(stack)) {
+            log.warn("Virtual thread pinned for {} ms: {}", event.getDuration().toMillis(), stack);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.amsidh.mvc.common.filter;
+
+import com.amsidh.mvc.common.deadline.Deadline;
+import com.amsidh.mvc.common.deadline.DeadlineExceededException;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for DeadlineFilter
+ * Verifies that the caller's deadline is bound, propagated and enforced
+ */
+class DeadlineFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testHeaderDeadlineIsBoundAndFollowsContextSnapshots() throws Exception {
+        DeadlineFilter filter = new DeadlineFilter(meterRegistry, Duration.ofSeconds(30));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/rate");
+        request.addHeader(Deadline.HEADER, "2000");
+        AtomicReference<Deadline> onOtherThread = new AtomicReference<>();
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            long remaining = Deadline.current().remainingMillis();
+            assertTrue(remaining > 1500 && remaining <= 2000);
+            Runnable task = ContextSnapshotFactory.builder().build().captureAll()
+                    .wrap(() -> onOtherThread.set(Deadline.current()));
+            try (var executor = Executors.newSingleThreadExecutor()) {
+                CompletableFuture.runAsync(task, executor).join();
+            }
+        });
+
+        assertNotNull(onOtherThread.get());
+        assertNull(Deadline.current());
+    }
+
+    @Test
+    void testExpiredRequestIsNotHandled() throws Exception {
+        DeadlineFilter filter = new DeadlineFilter(meterRegistry, null);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/rate");
+        request.addHeader(Deadline.HEADER, "0");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals(504, response.getStatus());
+        assertNull(chain.getRequest());
+        assertEquals(1, meterRegistry.get(Deadline.EXPIRED_METRIC).tag("stage", "arrival").counter().count());
+    }
+
+    @Test
+    void testAbandonedWorkIsAnswered504() throws Exception {
+        DeadlineFilter filter = new DeadlineFilter(meterRegistry, Duration.ofSeconds(1));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/rate"), response, (req, res) -> {
+            throw new DeadlineExceededException("database");
+        });
+
+        assertEquals(504, response.getStatus());
+        assertEquals(1, meterRegistry.get(Deadline.EXPIRED_METRIC).tag("stage", "database").counter().count());
+    }
+
+    @Test
+    void testNoDeadlineWithoutHeaderOrDefault() throws Exception {
+        DeadlineFilter filter = new DeadlineFilter(meterRegistry, null);
+        AtomicReference<Deadline> bound = new AtomicReference<>(Deadline.after(Duration.ZERO));
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/rate"), new MockHttpServletResponse(),
+                (req, res) -> bound.set(Deadline.current()));
+
+        assertNull(bound.get());
+    }
+}
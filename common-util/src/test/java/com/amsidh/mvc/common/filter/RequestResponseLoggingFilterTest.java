@@ -0,0 +1,51 @@
+package com.amsidh.mvc.common.filter;
+
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for RequestResponseLoggingFilter
+ * Verifies that streaming endpoints are never buffered, whatever their content type
+ */
+class RequestResponseLoggingFilterTest {
+
+    private final RequestResponseLoggingFilter filter = new RequestResponseLoggingFilter(Tracer.NOOP,
+            List.of("/currencyconversion/stream"));
+
+    @Test
+    void testJsonArrayUploadToStreamingPathIsNotCached() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/currencyconversion/stream");
+        request.setContentType("application/json");
+        request.setContent("[{\"fromCurrency\":\"USD\",\"toCurrency\":\"INR\",\"quantity\":10}]"
+                .getBytes(StandardCharsets.UTF_8));
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertSame(request, chain.getRequest());
+        assertFalse(chain.getResponse() instanceof ContentCachingResponseWrapper);
+    }
+
+    @Test
+    void testOtherRequestsAreCachedForLogging() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/currencyconversion/batch");
+        request.setContentType("application/json");
+        request.setContent("[]".getBytes(StandardCharsets.UTF_8));
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertInstanceOf(ContentCachingRequestWrapper.class, chain.getRequest());
+        assertInstanceOf(ContentCachingResponseWrapper.class, chain.getResponse());
+    }
+}
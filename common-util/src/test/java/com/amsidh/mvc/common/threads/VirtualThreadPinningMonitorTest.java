@@ -0,0 +1,47 @@
+package com.amsidh.mvc.common.threads;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for VirtualThreadPinningMonitor
+ * Verifies that blocking inside synchronized on a virtual thread is counted
+ */
+class VirtualThreadPinningMonitorTest {
+
+    private final Object lock = new Object();
+
+    @Test
+    void testSleepInsideSynchronizedIsCounted() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(meterRegistry);
+        ReflectionTestUtils.setField(monitor, "threshold", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(monitor, "stackDepth", 8);
+        monitor.start();
+        try {
+            Thread.ofVirtual().start(() -> {
+                synchronized (lock) {
+                    try {
+                        Thread.sleep(50); // Parks while holding a monitor: pins the carrier
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }).join();
+
+            // JFR streams flush about once a second
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (meterRegistry.counter("jvm.threads.virtual.pinned").count() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+            }
+            assertTrue(meterRegistry.counter("jvm.threads.virtual.pinned").count() >= 1);
+        } finally {
+            monitor.stop();
+        }
+    }
+}
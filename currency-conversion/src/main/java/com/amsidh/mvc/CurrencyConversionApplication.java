@@ -3,9 +3,11 @@ package com.amsidh.mvc;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableFeignClients
+@EnableScheduling
 public class CurrencyConversionApplication {
     public static void main(String[] args) {
         SpringApplication.run(CurrencyConversionApplication.class, args);
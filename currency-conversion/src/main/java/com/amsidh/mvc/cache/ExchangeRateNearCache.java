@@ -0,0 +1,256 @@
+package com.amsidh.mvc.cache;
+
+import com.amsidh.mvc.dto.CurrencyExchangeDto;
+import com.amsidh.mvc.fallback.impl.CachedExchangeRateProvider;
+import com.amsidh.mvc.resilience.CallOutcome;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Read-through near cache of exchange rates in front of the currency-exchange call.
+ * <p>
+ * Per entry age:
+ * <ul>
+ * <li>younger than refresh-ahead: served, no remote call</li>
+ * <li>between refresh-ahead and ttl: served, one background refresh is started</li>
+ * <li>between ttl and ttl + stale-while-revalidate: served stale, one background refresh is started</li>
+ * <li>older, or missing: loaded on the caller thread</li>
+ * </ul>
+ * Every successful load is written through to {@link CachedExchangeRateProvider},
+ * so the CACHED fallback holds the last known good rate when the remote call fails.
+ * <p>
+ * Beyond max-entries, the entry loaded longest ago is evicted. Lookups that keep a pair
+ * in use also keep refreshing it, so this is close to least recently used, and only
+ * writers need to track the order.
+ */
+@Slf4j
+@Component
+public class ExchangeRateNearCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Keys from the oldest load to the newest; readers never touch it
+    private final LinkedHashMap<String, Entry> loadOrder = new LinkedHashMap<>();
+    private final ReentrantLock storeLock = new ReentrantLock();
+    private final CachedExchangeRateProvider cachedExchangeRateProvider;
+    private final Executor refreshExecutor;
+    private final LongSupplier nanoClock;
+    private final long refreshAheadNanos;
+    private final long ttlNanos;
+    private final long staleNanos;
+    private final int maxEntries;
+
+    private final Counter hits;
+    private final Counter refreshAheadHits;
+    private final Counter staleHits;
+    private final Counter misses;
+    private final Counter refreshFailures;
+
+    @Autowired
+    public ExchangeRateNearCache(CachedExchangeRateProvider cachedExchangeRateProvider, MeterRegistry meterRegistry,
+            @Value("${currency-conversion.near-cache.ttl:PT60S}") Duration ttl,
+            @Value("${currency-conversion.near-cache.refresh-ahead:PT45S}") Duration refreshAhead,
+            @Value("${currency-conversion.near-cache.stale-while-revalidate:PT5M}") Duration staleWhileRevalidate,
+            @Value("${currency-conversion.near-cache.max-entries:10000}") int maxEntries,
+            @Value("${currency-conversion.near-cache.refresh-threads:2}") int refreshThreads) {
+        this(cachedExchangeRateProvider, meterRegistry, ttl, refreshAhead, staleWhileRevalidate, maxEntries,
+                newRefreshExecutor(refreshThreads), System::nanoTime);
+    }
+
+    ExchangeRateNearCache(CachedExchangeRateProvider cachedExchangeRateProvider, MeterRegistry meterRegistry,
+            Duration ttl, Duration refreshAhead, Duration staleWhileRevalidate, int maxEntries,
+            Executor refreshExecutor, LongSupplier nanoClock) {
+        this.cachedExchangeRateProvider = cachedExchangeRateProvider;
+        this.refreshExecutor = refreshExecutor;
+        this.nanoClock = nanoClock;
+        this.ttlNanos = ttl.toNanos();
+        this.refreshAheadNanos = Math.min(refreshAhead.toNanos(), ttlNanos);
+        this.staleNanos = staleWhileRevalidate.toNanos();
+        this.maxEntries = maxEntries;
+
+        this.hits = requests(meterRegistry, "hit");
+        this.refreshAheadHits = requests(meterRegistry, "refresh_ahead");
+        this.staleHits = requests(meterRegistry, "stale");
+        this.misses = requests(meterRegistry, "miss");
+        this.refreshFailures = Counter.builder("near_cache.refresh.failures")
+                .description("Background rate refreshes that failed")
+                .register(meterRegistry);
+        Gauge.builder("near_cache.size", entries, Map::size)
+                .description("Currency pairs held in the near cache")
+                .register(meterRegistry);
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("near_cache.requests")
+                .description("Exchange rate lookups by near cache outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static ExecutorService newRefreshExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1000),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "rate-refresh-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refreshExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Get the rate of a pair, loading it with the given loader when absent or too old.
+     * The loader's outcome reaches the caller only on that synchronous path.
+     */
+    public CallOutcome<CurrencyExchangeDto> get(String fromCurrency, String toCurrency,
+            Supplier<CallOutcome<CurrencyExchangeDto>> loader) {
+        String key = key(fromCurrency, toCurrency);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            long age = nanoClock.getAsLong() - entry.loadedAt();
+            if (age < refreshAheadNanos) {
+                hits.increment();
+                return entry.served();
+            }
+            if (age < ttlNanos) {
+                refreshAheadHits.increment();
+                refreshInBackground(key, entry, fromCurrency, toCurrency, loader);
+                return entry.served();
+            }
+            if (age < ttlNanos + staleNanos) {
+                staleHits.increment();
+                refreshInBackground(key, entry, fromCurrency, toCurrency, loader);
+                return entry.served();
+            }
+        }
+
+        misses.increment();
+        return load(key, fromCurrency, toCurrency, loader);
+    }
+
+    /**
+     * Get the rate of a pair only if it is younger than the ttl, without loading it.
+     * Used by batch lookups, which reload everything else in one remote call.
+     */
+    public CurrencyExchangeDto getIfFresh(String fromCurrency, String toCurrency) {
+        Entry entry = entries.get(key(fromCurrency, toCurrency));
+        if (entry != null && nanoClock.getAsLong() - entry.loadedAt() < ttlNanos) {
+            hits.increment();
+            return entry.served().value();
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Store a rate loaded outside {@link #get}, for example by a batch lookup
+     */
+    public void put(String fromCurrency, String toCurrency, CurrencyExchangeDto value) {
+        store(key(fromCurrency, toCurrency), fromCurrency, toCurrency, new CallOutcome.Success<>(value));
+    }
+
+    /**
+     * Drop every entry, for example after rates were corrected upstream
+     */
+    public void invalidateAll() {
+        storeLock.lock();
+        try {
+            loadOrder.clear();
+            entries.clear();
+        } finally {
+            storeLock.unlock();
+        }
+    }
+
+    private CallOutcome<CurrencyExchangeDto> load(String key, String fromCurrency, String toCurrency,
+            Supplier<CallOutcome<CurrencyExchangeDto>> loader) {
+        CallOutcome<CurrencyExchangeDto> outcome = loader.get();
+        if (outcome instanceof CallOutcome.Success<CurrencyExchangeDto> success) {
+            store(key, fromCurrency, toCurrency, success);
+        }
+        return outcome;
+    }
+
+    private void store(String key, String fromCurrency, String toCurrency,
+            CallOutcome.Success<CurrencyExchangeDto> served) {
+        CurrencyExchangeDto value = served.value();
+        if (value != null && value.getRate() != null) {
+            // The outcome itself is kept, so hits hand it out without allocating
+            Entry entry = new Entry(served, nanoClock.getAsLong(), new AtomicBoolean());
+            storeLock.lock();
+            try {
+                loadOrder.remove(key); // Re-inserted so a reload moves it to the newest end
+                loadOrder.put(key, entry);
+                entries.put(key, entry);
+                if (loadOrder.size() > maxEntries) {
+                    Map.Entry<String, Entry> oldest = loadOrder.pollFirstEntry();
+                    entries.remove(oldest.getKey());
+                }
+            } finally {
+                storeLock.unlock();
+            }
+            cachedExchangeRateProvider.cacheExchangeRate(fromCurrency, toCurrency, value.getRate());
+        }
+    }
+
+    private void refreshInBackground(String key, Entry entry, String fromCurrency, String toCurrency,
+            Supplier<CallOutcome<CurrencyExchangeDto>> loader) {
+        if (!entry.refreshing().compareAndSet(false, true)) {
+            return; // Already being refreshed
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    CallOutcome<CurrencyExchangeDto> outcome = load(key, fromCurrency, toCurrency, loader);
+                    if (!(outcome instanceof CallOutcome.Success)) {
+                        refreshFailures.increment();
+                        log.debug("Background refresh of {}/{} gave {}, serving cached rate",
+                                fromCurrency, toCurrency, outcome);
+                    }
+                } catch (Exception e) {
+                    refreshFailures.increment();
+                    log.debug("Background refresh of {}/{} failed, serving cached rate: {}",
+                            fromCurrency, toCurrency, e.getMessage());
+                } finally {
+                    entry.refreshing().set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            entry.refreshing().set(false); // Try again on the next lookup
+        }
+    }
+
+    private static String key(String fromCurrency, String toCurrency) {
+        return (fromCurrency + ":" + toCurrency).toUpperCase();
+    }
+
+    private record Entry(CallOutcome.Success<CurrencyExchangeDto> served, long loadedAt, AtomicBoolean refreshing) {
+    }
+}
@@ -0,0 +1,119 @@
+package com.amsidh.mvc.cache;
+
+import com.amsidh.mvc.client.CurrencyExchangeClient;
+import com.amsidh.mvc.dto.RateEntryDto;
+import com.amsidh.mvc.dto.RateSnapshotDto;
+import feign.FeignException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Local copy of the whole currency-exchange rate table for bulk conversions.
+ * Synced with If-None-Match, so an unchanged table costs one 304. Every sync
+ * swaps in a complete immutable copy, so a caller holding {@link Rates} converts
+ * against one version throughout.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LocalRateSnapshot {
+
+    private final CurrencyExchangeClient currencyExchangeClient;
+
+    private final AtomicReference<Rates> current = new AtomicReference<>(Rates.EMPTY);
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    /**
+     * Get the current snapshot, syncing first if none has been loaded yet
+     */
+    public Rates current() {
+        Rates rates = current.get();
+        return rates.version() > 0 ? rates : sync();
+    }
+
+    /**
+     * Runs at startup and then periodically; failures keep the previous snapshot
+     */
+    @Scheduled(fixedDelayString = "${currency-conversion.rate-snapshot.refresh-interval:PT30S}")
+    public void scheduledSync() {
+        try {
+            sync();
+        } catch (Exception e) {
+            log.warn("Rate snapshot sync failed, keeping version {}: {}", current.get().version(), e.getMessage());
+        }
+    }
+
+    /**
+     * Fetch the snapshot if it changed since the held version
+     *
+     * @return the snapshot that is current after the sync
+     */
+    public Rates sync() {
+        syncLock.lock();
+        try {
+            Rates previous = current.get();
+            ResponseEntity<RateSnapshotDto> response;
+            try {
+                response = currencyExchangeClient.getSnapshot(previous.etag());
+            } catch (FeignException e) {
+                if (e.status() == HttpStatus.NOT_MODIFIED.value()) {
+                    return previous;
+                }
+                throw e;
+            }
+
+            RateSnapshotDto snapshot = response.getBody();
+            if (snapshot == null || snapshot.getVersion() == previous.version()) {
+                return previous;
+            }
+            Rates rates = Rates.of(snapshot, response.getHeaders().getETag());
+            current.set(rates);
+            log.info("Synced rate snapshot version {} with {} rates", rates.version(), rates.size());
+            return rates;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Immutable rate table of one snapshot version, indexed by upper-case from and to currency
+     */
+    public record Rates(long version, String etag, Map<String, Map<String, BigDecimal>> table, int size) {
+
+        static final Rates EMPTY = new Rates(0, null, Map.of(), 0);
+
+        static Rates of(RateSnapshotDto snapshot, String etag) {
+            Map<String, Map<String, BigDecimal>> table = new HashMap<>();
+            int size = 0;
+            if (snapshot.getRates() != null) {
+                for (RateEntryDto entry : snapshot.getRates()) {
+                    if (entry.getFromCurrency() != null && entry.getToCurrency() != null && entry.getRate() != null) {
+                        table.computeIfAbsent(entry.getFromCurrency().toUpperCase(), from -> new HashMap<>())
+                                .put(entry.getToCurrency().toUpperCase(), entry.getRate());
+                        size++;
+                    }
+                }
+            }
+            table.replaceAll((from, row) -> Map.copyOf(row));
+            return new Rates(snapshot.getVersion(), etag, Map.copyOf(table), size);
+        }
+
+        /**
+         * Get the rate of a pair, or null if the snapshot has none
+         */
+        public BigDecimal rate(String fromCurrency, String toCurrency) {
+            Map<String, BigDecimal> row = table.get(fromCurrency.toUpperCase());
+            return row == null ? null : row.get(toCurrency.toUpperCase());
+        }
+    }
+}
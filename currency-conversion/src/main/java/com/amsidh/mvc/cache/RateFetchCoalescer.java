@@ -0,0 +1,107 @@
+package com.amsidh.mvc.cache;
+
+import com.amsidh.mvc.common.deadline.Deadline;
+import com.amsidh.mvc.common.deadline.DeadlineExceededException;
+import com.amsidh.mvc.dto.CurrencyExchangeDto;
+import com.amsidh.mvc.resilience.CallOutcome;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for remote rate fetches: concurrent callers asking for the same pair
+ * share one outbound call and its outcome instead of each spending bulkhead and rate
+ * limiter permits. Nothing is cached; the flight ends with the call. A caller joining
+ * a flight waits no longer than its own deadline.
+ */
+@Component
+public class RateFetchCoalescer {
+
+    private final Map<String, CompletableFuture<CallOutcome<CurrencyExchangeDto>>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter followers;
+    private final Counter deadlineExpired;
+
+    public RateFetchCoalescer(MeterRegistry meterRegistry) {
+        this.leaders = calls(meterRegistry, "leader");
+        this.followers = calls(meterRegistry, "follower");
+        this.deadlineExpired = Counter.builder(Deadline.EXPIRED_METRIC)
+                .description("Work abandoned because the caller's deadline had passed")
+                .tag("stage", "single_flight")
+                .register(meterRegistry);
+        Gauge.builder("single_flight.in_flight", inFlight, Map::size)
+                .description("Pairs with an outbound rate fetch in progress")
+                .register(meterRegistry);
+        Gauge.builder("single_flight.coalescing_ratio", this, RateFetchCoalescer::coalescingRatio)
+                .description("Share of rate fetches served by joining a call already in flight")
+                .register(meterRegistry);
+    }
+
+    private static Counter calls(MeterRegistry meterRegistry, String role) {
+        return Counter.builder("single_flight.calls")
+                .description("Rate fetches by whether they made the remote call or joined one")
+                .tag("role", role)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run the fetch for a pair, or wait for the one already running
+     */
+    public CallOutcome<CurrencyExchangeDto> fetch(String fromCurrency, String toCurrency,
+            Supplier<CallOutcome<CurrencyExchangeDto>> fetcher) {
+        String key = (fromCurrency + ":" + toCurrency).toUpperCase();
+        CompletableFuture<CallOutcome<CurrencyExchangeDto>> flight = new CompletableFuture<>();
+        CompletableFuture<CallOutcome<CurrencyExchangeDto>> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            followers.increment();
+            return await(existing);
+        }
+
+        leaders.increment();
+        try {
+            CallOutcome<CurrencyExchangeDto> result = fetcher.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private CallOutcome<CurrencyExchangeDto> await(CompletableFuture<CallOutcome<CurrencyExchangeDto>> flight) {
+        Deadline deadline = Deadline.current();
+        try {
+            return deadline == null
+                    ? flight.get()
+                    : flight.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            deadlineExpired.increment();
+            throw new DeadlineExceededException("shared rate fetch");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shared rate fetch", e);
+        } catch (ExecutionException e) {
+            // Followers see the leader's exception as is, so fallback handling stays the same
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    double coalescingRatio() {
+        double total = leaders.count() + followers.count();
+        return total == 0 ? 0 : followers.count() / total;
+    }
+}
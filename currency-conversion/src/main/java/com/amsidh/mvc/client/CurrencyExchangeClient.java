@@ -1,10 +1,21 @@
 package com.amsidh.mvc.client;
 
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 
+import com.amsidh.mvc.dto.BatchRateResponseDto;
 import com.amsidh.mvc.dto.CurrencyExchangeDto;
+import com.amsidh.mvc.dto.CurrencyPairDto;
+import com.amsidh.mvc.dto.RateSnapshotDto;
+
+import java.net.URI;
+import java.util.List;
 
 @FeignClient(
     name = "currency-exchange",
@@ -16,4 +27,26 @@ public interface CurrencyExchangeClient {
     CurrencyExchangeDto getExchangeRate(
             @PathVariable String fromCurrency,
             @PathVariable String toCurrency);
-}
\ No newline at end of file
+
+    /**
+     * Same call sent to one replica; the URI replaces the configured service URL
+     */
+    @GetMapping("/currencyexchange/{fromCurrency}/to/{toCurrency}/rate")
+    CurrencyExchangeDto getExchangeRate(
+            URI replica,
+            @PathVariable String fromCurrency,
+            @PathVariable String toCurrency);
+
+    @PostMapping("/currencyexchange/rates")
+    BatchRateResponseDto getExchangeRates(@RequestBody List<CurrencyPairDto> pairs);
+
+    @PostMapping("/currencyexchange/rates")
+    BatchRateResponseDto getExchangeRates(URI replica, @RequestBody List<CurrencyPairDto> pairs);
+
+    /**
+     * Whole rate table; an unchanged table is answered with 304, which Feign raises as an exception
+     */
+    @GetMapping("/currencyexchange/snapshot")
+    ResponseEntity<RateSnapshotDto> getSnapshot(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String etag);
+}
@@ -0,0 +1,382 @@
+package com.amsidh.mvc.client;
+
+import com.amsidh.mvc.common.deadline.Deadline;
+import com.amsidh.mvc.common.deadline.DeadlineExceededException;
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Client-side load balancing across the individual currency-exchange replicas.
+ * Replicas are picked by power of two choices: two random replicas are compared and the one
+ * with the lower cost (peak EWMA latency times calls in flight plus one) gets the call, so a
+ * pausing or overloaded replica stops getting traffic as soon as its calls pile up.
+ * With the PAIR_AFFINITY strategy, each currency pair is owned by one replica on a consistent
+ * hash ring instead, so every replica serves a stable subset of pairs; the pairs of an ejected
+ * replica go to the next replica on the ring until it returns.
+ * A replica failing several calls in a row is ejected for a while, longer each time it is
+ * ejected again. Without a replica list, the single service URL is the only replica.
+ */
+@Slf4j
+@Component
+public class CurrencyExchangeReplicas {
+
+    public enum Strategy {
+        P2C, PAIR_AFFINITY
+    }
+
+    // Cost of a replica with calls in flight but no measured latency yet: try it once, then wait
+    private static final double UNMEASURED_PENALTY = Long.MAX_VALUE >> 16;
+    // A refused connection fails fast; it must not make the replica look like the quickest one
+    private static final long FAILURE_LATENCY_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int MAX_EJECTION_MULTIPLIER = 10;
+
+    private final List<Replica> replicas;
+    private final Strategy strategy;
+    private final PairRing<Replica> ring;
+    private final long decayNanos;
+    private final int failureThreshold;
+    private final long ejectionNanos;
+    private final int maxEjectionPercent;
+    private final LongSupplier nanoClock;
+    private final Counter ejections;
+
+    @Autowired
+    public CurrencyExchangeReplicas(
+            @Value("${currency-exchange.service.replicas:}") List<String> replicaUrls,
+            @Value("${currency-exchange.service.url:http://localhost:8181}") String serviceUrl,
+            MeterRegistry meterRegistry,
+            @Value("${currency-conversion.load-balancing.decay:PT10S}") Duration decay,
+            @Value("${currency-conversion.load-balancing.failure-threshold:5}") int failureThreshold,
+            @Value("${currency-conversion.load-balancing.ejection-time:PT30S}") Duration ejectionTime,
+            @Value("${currency-conversion.load-balancing.max-ejection-percent:50}") int maxEjectionPercent,
+            @Value("${currency-conversion.load-balancing.strategy:P2C}") Strategy strategy,
+            @Value("${currency-conversion.load-balancing.ring-points:100}") int ringPoints) {
+        this(replicaUrls, serviceUrl, meterRegistry, decay, failureThreshold, ejectionTime, maxEjectionPercent,
+                strategy, ringPoints, System::nanoTime);
+    }
+
+    CurrencyExchangeReplicas(List<String> replicaUrls, String serviceUrl, MeterRegistry meterRegistry,
+            Duration decay, int failureThreshold, Duration ejectionTime, int maxEjectionPercent,
+            Strategy strategy, int ringPoints, LongSupplier nanoClock) {
+        List<String> urls = replicaUrls.stream().map(String::trim).filter(url -> !url.isEmpty()).toList();
+        this.replicas = (urls.isEmpty() ? List.of(serviceUrl) : urls).stream()
+                .map(url -> new Replica(URI.create(url)))
+                .toList();
+        this.strategy = strategy;
+        // Replicas are placed by URL, so the same list gives every conversion instance the same ring
+        this.ring = strategy == Strategy.PAIR_AFFINITY
+                ? new PairRing<>(replicas, replica -> replica.uri.toString(), ringPoints)
+                : null;
+        this.decayNanos = decay.toNanos();
+        this.failureThreshold = failureThreshold;
+        this.ejectionNanos = ejectionTime.toNanos();
+        this.maxEjectionPercent = maxEjectionPercent;
+        this.nanoClock = nanoClock;
+        this.ejections = Counter.builder("load_balancer.ejections")
+                .description("Currency-exchange replicas ejected after consecutive failures")
+                .register(meterRegistry);
+        for (Replica replica : replicas) {
+            Gauge.builder("load_balancer.in_flight", replica.inFlight, AtomicInteger::get)
+                    .description("Calls in flight to a currency-exchange replica")
+                    .tag("replica", replica.uri.toString())
+                    .register(meterRegistry);
+            Gauge.builder("load_balancer.latency", replica, r -> r.ewmaNanos() / 1_000_000.0)
+                    .description("Peak EWMA latency of a currency-exchange replica in milliseconds")
+                    .tag("replica", replica.uri.toString())
+                    .register(meterRegistry);
+            Gauge.builder("load_balancer.ejected", replica, r -> r.isEjected(nanoClock.getAsLong()) ? 1 : 0)
+                    .description("Whether a currency-exchange replica is ejected")
+                    .tag("replica", replica.uri.toString())
+                    .register(meterRegistry);
+        }
+        log.info("Calling currency-exchange through {} replica(s) with {}: {}", replicas.size(), strategy,
+                replicas.stream().map(Replica::uri).toList());
+    }
+
+    public int size() {
+        return replicas.size();
+    }
+
+    public List<URI> all() {
+        return replicas.stream().map(Replica::uri).toList();
+    }
+
+    public boolean isPairAffinity() {
+        return ring != null;
+    }
+
+    /**
+     * The replica for a pair: its owner on the ring with PAIR_AFFINITY, otherwise as {@link #pick()}
+     */
+    public Replica pick(String fromCurrency, String toCurrency) {
+        return pickFor(fromCurrency, toCurrency, null);
+    }
+
+    /**
+     * A replica for the pair other than the given one: the next owner on the ring with
+     * PAIR_AFFINITY, so hedges for a pair also stay on two replicas
+     */
+    public Replica pickOther(Replica excluded, String fromCurrency, String toCurrency) {
+        return pickFor(fromCurrency, toCurrency, excluded);
+    }
+
+    private Replica pickFor(String fromCurrency, String toCurrency, Replica excluded) {
+        if (ring == null) {
+            return pick(excluded);
+        }
+        long now = nanoClock.getAsLong();
+        Replica owner = ring.owner(PairRing.key(fromCurrency, toCurrency),
+                replica -> replica != excluded && !replica.isEjected(now));
+        return owner != null ? owner : pick(excluded);
+    }
+
+    /**
+     * The cheaper of two random replicas that are not ejected
+     */
+    public Replica pick() {
+        return pick(null);
+    }
+
+    /**
+     * The cheaper of two random replicas other than the given one, such as for a hedge
+     */
+    public Replica pickOther(Replica excluded) {
+        return pick(excluded);
+    }
+
+    private Replica pick(Replica excluded) {
+        long now = nanoClock.getAsLong();
+        List<Replica> candidates = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            if (replica != excluded && !replica.isEjected(now)) {
+                candidates.add(replica);
+            }
+        }
+        if (candidates.isEmpty()) {
+            // Everything else is ejected; a call to a doubtful replica beats no call
+            replicas.stream().filter(replica -> replica != excluded).forEach(candidates::add);
+            if (candidates.isEmpty()) {
+                return excluded;
+            }
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        int first = ThreadLocalRandom.current().nextInt(candidates.size());
+        int second = ThreadLocalRandom.current().nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        // Ties go to the replica listed first
+        Replica a = candidates.get(Math.min(first, second));
+        Replica b = candidates.get(Math.max(first, second));
+        return b.cost() < a.cost() ? b : a;
+    }
+
+    /**
+     * Make a blocking call to the replica, recording its latency and outcome
+     */
+    public <T> T call(Replica replica, Function<URI, T> call) {
+        long start = replica.begin();
+        Outcome outcome = Outcome.FAILURE;
+        try {
+            T result = call.apply(replica.uri);
+            outcome = Outcome.SUCCESS;
+            return result;
+        } catch (RuntimeException e) {
+            outcome = classify(e);
+            throw e;
+        } finally {
+            replica.end(start, outcome);
+        }
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #call(Replica, Function)}; a cancelled call only counts its latency
+     */
+    public <T> Mono<T> call(Replica replica, Mono<T> call) {
+        return Mono.defer(() -> {
+            long start = replica.begin();
+            AtomicReference<Outcome> outcome = new AtomicReference<>(Outcome.CANCELLED);
+            return call
+                    .doOnSuccess(result -> outcome.set(Outcome.SUCCESS))
+                    .doOnError(e -> outcome.set(classify(e)))
+                    .doFinally(signal -> replica.end(start, outcome.get()));
+        });
+    }
+
+    /**
+     * A 4xx is the same on every replica and means the replica itself is fine
+     */
+    static boolean isClientError(Throwable failure) {
+        if (failure instanceof FeignException feignException) {
+            return feignException.status() >= 400 && feignException.status() < 500;
+        }
+        return failure instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError();
+    }
+
+    private static Outcome classify(Throwable failure) {
+        if (isClientError(failure)) {
+            return Outcome.SUCCESS;
+        }
+        // Running out of the caller's time budget says nothing about the replica either
+        Deadline deadline = Deadline.current();
+        if (failure instanceof DeadlineExceededException || deadline != null && deadline.isExpired()) {
+            return Outcome.CANCELLED;
+        }
+        // A hedge loser is interrupted out of its socket read; that says nothing about the replica
+        boolean interrupted = Thread.currentThread().isInterrupted();
+        for (Throwable cause = failure; cause != null && !interrupted; cause = cause.getCause()) {
+            interrupted = cause instanceof InterruptedIOException || cause instanceof InterruptedException;
+        }
+        return interrupted ? Outcome.CANCELLED : Outcome.FAILURE;
+    }
+
+    private enum Outcome {
+        SUCCESS, FAILURE, CANCELLED
+    }
+
+    private int ejectedCount(long now) {
+        int ejected = 0;
+        for (Replica replica : replicas) {
+            if (replica.isEjected(now)) {
+                ejected++;
+            }
+        }
+        return ejected;
+    }
+
+    /**
+     * One currency-exchange replica and what has been measured about it
+     */
+    public final class Replica {
+
+        private final URI uri;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private double ewmaNanos;
+        private long lastSampleAt;
+        private int consecutiveFailures;
+        private int timesEjected;
+        private long ejectedUntil;
+        private long returnedAt;
+
+        private Replica(URI uri) {
+            this.uri = uri;
+        }
+
+        public URI uri() {
+            return uri;
+        }
+
+        private long begin() {
+            inFlight.incrementAndGet();
+            return nanoClock.getAsLong();
+        }
+
+        private void end(long start, Outcome outcome) {
+            inFlight.decrementAndGet();
+            long now = nanoClock.getAsLong();
+            boolean eject;
+            synchronized (this) {
+                long latency = now - start;
+                recordLatency(outcome == Outcome.FAILURE ? Math.max(latency, FAILURE_LATENCY_NANOS) : latency, now);
+                if (outcome == Outcome.SUCCESS) {
+                    consecutiveFailures = 0;
+                }
+                eject = outcome == Outcome.FAILURE && ++consecutiveFailures >= failureThreshold
+                        && !isEjected(now);
+            }
+            if (eject) {
+                eject(now);
+            }
+        }
+
+        /**
+         * Peak EWMA: a slower call is taken at once, faster calls pull the average down over the decay time
+         */
+        private void recordLatency(long nanos, long now) {
+            if (lastSampleAt == 0 || nanos > ewmaNanos) {
+                ewmaNanos = nanos;
+            } else {
+                double weight = Math.exp(-(double) (now - lastSampleAt) / decayNanos);
+                ewmaNanos = ewmaNanos * weight + nanos * (1 - weight);
+            }
+            lastSampleAt = now;
+        }
+
+        private void eject(long now) {
+            // Never eject so many replicas that the rest get more than they can take
+            if ((ejectedCount(now) + 1) * 100 > maxEjectionPercent * replicas.size()) {
+                log.warn("Replica {} keeps failing but too many replicas are ejected already", uri);
+                return;
+            }
+            long duration;
+            synchronized (this) {
+                if (now - returnedAt > MAX_EJECTION_MULTIPLIER * ejectionNanos) {
+                    timesEjected = 0;
+                }
+                timesEjected++;
+                duration = ejectionNanos * Math.min(timesEjected, MAX_EJECTION_MULTIPLIER);
+                ejectedUntil = now + duration;
+                consecutiveFailures = 0;
+            }
+            ejections.increment();
+            log.warn("Ejected currency-exchange replica {} for {} ms after {} consecutive failures", uri,
+                    duration / 1_000_000, failureThreshold);
+        }
+
+        private synchronized boolean isEjected(long now) {
+            if (ejectedUntil == 0) {
+                return false;
+            }
+            if (now < ejectedUntil) {
+                return true;
+            }
+            // Back in rotation with its old latency forgotten, so it gets probed again
+            ejectedUntil = 0;
+            returnedAt = now;
+            lastSampleAt = 0;
+            ewmaNanos = 0;
+            return false;
+        }
+
+        private synchronized double ewmaNanos() {
+            return ewmaNanos;
+        }
+
+        private double cost() {
+            int pending = inFlight.get();
+            double latency = ewmaNanos();
+            if (latency == 0) {
+                return pending == 0 ? 0 : UNMEASURED_PENALTY + pending;
+            }
+            return latency * (pending + 1);
+        }
+
+        @Override
+        public String toString() {
+            return uri.toString();
+        }
+    }
+}
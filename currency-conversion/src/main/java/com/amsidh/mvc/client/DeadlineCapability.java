@@ -0,0 +1,61 @@
+package com.amsidh.mvc.client;
+
+import com.amsidh.mvc.common.deadline.Deadline;
+import com.amsidh.mvc.common.deadline.DeadlineExceededException;
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carries the request's {@link Deadline} into every Feign call to currency-exchange:
+ * the remaining time is sent in {@link Deadline#HEADER} and caps the connect and read
+ * timeouts, and a call is not sent at all once the deadline has passed.
+ */
+@Component
+public class DeadlineCapability implements Capability {
+
+    private final Counter expired;
+
+    public DeadlineCapability(MeterRegistry meterRegistry) {
+        this.expired = Counter.builder(Deadline.EXPIRED_METRIC)
+                .description("Work abandoned because the caller's deadline had passed")
+                .tag("stage", "call")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            Deadline deadline = Deadline.current();
+            if (deadline == null) {
+                return client.execute(request, options);
+            }
+            long remaining = deadline.remainingMillis();
+            if (remaining <= 0) {
+                expired.increment();
+                throw new DeadlineExceededException("call");
+            }
+
+            Map<String, Collection<String>> headers = new LinkedHashMap<>(request.headers());
+            headers.put(Deadline.HEADER, List.of(Long.toString(remaining)));
+            Request withDeadline = Request.create(request.httpMethod(), request.url(), headers, request.body(),
+                    request.charset(), request.requestTemplate());
+            Request.Options bounded = new Request.Options(
+                    Math.min(options.connectTimeoutUnit().toMillis(options.connectTimeout()), remaining),
+                    TimeUnit.MILLISECONDS,
+                    Math.min(options.readTimeoutUnit().toMillis(options.readTimeout()), remaining),
+                    TimeUnit.MILLISECONDS,
+                    options.isFollowRedirects());
+            return client.execute(withDeadline, bounded);
+        };
+    }
+}
@@ -0,0 +1,351 @@
+package com.amsidh.mvc.client;
+
+import com.amsidh.mvc.client.CurrencyExchangeReplicas.Replica;
+import com.amsidh.mvc.dto.BatchRateResponseDto;
+import com.amsidh.mvc.dto.CurrencyExchangeDto;
+import com.amsidh.mvc.dto.CurrencyPairDto;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Single-rate and batch calls to currency-exchange, balanced across the replicas by
+ * {@link CurrencyExchangeReplicas}. Single-rate calls can also be hedged: when the first
+ * attempt has not answered within the hedge delay (a latency percentile of recent attempts),
+ * a second attempt goes to another replica and whichever answers first wins; the other one
+ * is cancelled.
+ * Hedges are budgeted: every call earns a fraction of a hedge and a hedge spends a whole one,
+ * so hedges stay within the budget percentage of calls however slow the replicas get.
+ * With a single replica, calls go straight to the configured URL.
+ */
+@Slf4j
+@Component
+public class HedgedCurrencyExchangeClient {
+
+    private static final long TOKEN = 1000;
+    private static final long MAX_TOKENS = 10 * TOKEN;
+    private static final int MIN_SAMPLES = 20;
+    private static final long DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final CurrencyExchangeClient currencyExchangeClient;
+    private final ReactiveCurrencyExchangeClient reactiveCurrencyExchangeClient;
+    private final CurrencyExchangeReplicas replicas;
+    private final boolean balanced;
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final long tokensPerCall;
+    private final AtomicLong budget = new AtomicLong(TOKEN);
+    // Blocking attempts run on virtual threads: interrupting one blocked in a socket read closes the socket
+    private final ExecutorService attemptExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ContextSnapshotFactory contextSnapshotFactory = ContextSnapshotFactory.builder().build();
+    private final Timer attemptLatency;
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+    private final Counter budgetExhausted;
+
+    private volatile long delayNanos;
+    private volatile long delayComputedAt;
+
+    public HedgedCurrencyExchangeClient(CurrencyExchangeClient currencyExchangeClient,
+            ReactiveCurrencyExchangeClient reactiveCurrencyExchangeClient, CurrencyExchangeReplicas replicas,
+            MeterRegistry meterRegistry,
+            @Value("${currency-conversion.hedging.enabled:false}") boolean enabled,
+            @Value("${currency-conversion.hedging.percentile:0.95}") double percentile,
+            @Value("${currency-conversion.hedging.min-delay:PT0.01S}") Duration minDelay,
+            @Value("${currency-conversion.hedging.max-delay:PT1S}") Duration maxDelay,
+            @Value("${currency-conversion.hedging.budget-percent:5}") double budgetPercent) {
+        this.currencyExchangeClient = currencyExchangeClient;
+        this.reactiveCurrencyExchangeClient = reactiveCurrencyExchangeClient;
+        this.replicas = replicas;
+        this.balanced = replicas.size() > 1;
+        this.enabled = enabled && balanced;
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.tokensPerCall = Math.round(TOKEN * budgetPercent / 100);
+        this.delayNanos = maxDelayNanos;
+        this.delayComputedAt = System.nanoTime();
+
+        this.attemptLatency = Timer.builder("hedging.attempt.latency")
+                .description("Latency of single attempts to currency-exchange that ran to completion")
+                .publishPercentiles(percentile)
+                .register(meterRegistry);
+        this.hedgesSent = Counter.builder("hedging.hedges")
+                .description("Second attempts sent to another replica")
+                .tag("result", "sent")
+                .register(meterRegistry);
+        this.hedgesWon = Counter.builder("hedging.hedges")
+                .description("Second attempts that answered before the first")
+                .tag("result", "won")
+                .register(meterRegistry);
+        this.budgetExhausted = Counter.builder("hedging.budget.exhausted")
+                .description("Calls that were due a hedge but found the budget spent")
+                .register(meterRegistry);
+        Gauge.builder("hedging.delay", this, client -> client.delayNanos / 1_000_000.0)
+                .description("Current hedge delay in milliseconds")
+                .register(meterRegistry);
+        if (enabled && !this.enabled) {
+            log.warn("Hedging needs at least two currency-exchange replicas; it stays off");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        attemptExecutor.shutdownNow();
+    }
+
+    /**
+     * Get a rate, hedging to a second replica if the first is slow
+     */
+    public CurrencyExchangeDto getExchangeRate(String fromCurrency, String toCurrency) {
+        if (!balanced) {
+            return currencyExchangeClient.getExchangeRate(fromCurrency, toCurrency);
+        }
+        if (!enabled) {
+            return replicas.call(replicas.pick(fromCurrency, toCurrency),
+                    replica -> currencyExchangeClient.getExchangeRate(replica, fromCurrency, toCurrency));
+        }
+        earnBudget();
+        CompletionService<CurrencyExchangeDto> attempts = new ExecutorCompletionService<>(attemptExecutor);
+        Replica first = replicas.pick(fromCurrency, toCurrency);
+        Future<CurrencyExchangeDto> primary = attempts.submit(attempt(first, fromCurrency, toCurrency));
+        Future<CurrencyExchangeDto> hedge = null;
+        try {
+            Future<CurrencyExchangeDto> done = attempts.poll(hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+            if (done == null && spendBudget()) {
+                hedge = attempts.submit(attempt(replicas.pickOther(first, fromCurrency, toCurrency), fromCurrency,
+                        toCurrency));
+            }
+            if (done == null) {
+                done = attempts.take();
+            }
+            try {
+                CurrencyExchangeDto rate = done.get();
+                if (done == hedge) {
+                    hedgesWon.increment();
+                }
+                return rate;
+            } catch (ExecutionException e) {
+                // A failed attempt is only final if it was the only one or the answer is definite (4xx)
+                if (hedge == null || isDefinite(e.getCause())) {
+                    throw rethrow(e);
+                }
+                Future<CurrencyExchangeDto> other = attempts.take();
+                try {
+                    CurrencyExchangeDto rate = other.get();
+                    if (other == hedge) {
+                        hedgesWon.increment();
+                    }
+                    return rate;
+                } catch (ExecutionException otherFailure) {
+                    throw rethrow(otherFailure);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for currency-exchange", e);
+        } finally {
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #getExchangeRate(String, String)}; the losing
+     * attempt is cancelled by unsubscribing from it
+     */
+    public Mono<CurrencyExchangeDto> getExchangeRateReactive(String fromCurrency, String toCurrency) {
+        if (!balanced) {
+            return reactiveCurrencyExchangeClient.getExchangeRate(fromCurrency, toCurrency);
+        }
+        if (!enabled) {
+            return Mono.defer(() -> {
+                Replica replica = replicas.pick(fromCurrency, toCurrency);
+                return replicas.call(replica,
+                        reactiveCurrencyExchangeClient.getExchangeRate(replica.uri(), fromCurrency, toCurrency));
+            });
+        }
+        return Mono.defer(() -> {
+            earnBudget();
+            Replica first = replicas.pick(fromCurrency, toCurrency);
+            Sinks.One<Boolean> primaryDone = Sinks.one();
+            AtomicReference<Throwable> lastFailure = new AtomicReference<>();
+
+            Mono<Outcome> primary = reactiveAttempt(first, fromCurrency, toCurrency, false)
+                    .doFinally(signal -> primaryDone.tryEmitValue(true));
+            Mono<Outcome> hedge = Mono.delay(Duration.ofNanos(hedgeDelayNanos()))
+                    .takeUntilOther(primaryDone.asMono())
+                    .filter(tick -> spendBudget())
+                    .flatMap(tick -> reactiveAttempt(replicas.pickOther(first, fromCurrency, toCurrency), fromCurrency,
+                            toCurrency, true));
+
+            return Flux.merge(primary, hedge)
+                    .doOnNext(outcome -> lastFailure.set(outcome.failure()))
+                    .filter(outcome -> outcome.failure() == null || isDefinite(outcome.failure()))
+                    .next()
+                    .flatMap(outcome -> {
+                        if (outcome.failure() != null) {
+                            return Mono.error(outcome.failure());
+                        }
+                        if (outcome.hedge()) {
+                            hedgesWon.increment();
+                        }
+                        return Mono.just(outcome.rate());
+                    })
+                    .switchIfEmpty(Mono.error(() -> lastFailure.get()));
+        });
+    }
+
+    /**
+     * Get many rates in one call to one replica; batch calls are balanced but not hedged.
+     * With pair affinity, the pairs are split by owner and the parts are sent in parallel.
+     */
+    public BatchRateResponseDto getExchangeRates(List<CurrencyPairDto> pairs) {
+        if (!balanced) {
+            return currencyExchangeClient.getExchangeRates(pairs);
+        }
+        if (!replicas.isPairAffinity()) {
+            return replicas.call(replicas.pick(), replica -> currencyExchangeClient.getExchangeRates(replica, pairs));
+        }
+        Map<Replica, List<CurrencyPairDto>> byOwner = new LinkedHashMap<>();
+        for (CurrencyPairDto pair : pairs) {
+            byOwner.computeIfAbsent(replicas.pick(pair.getFromCurrency(), pair.getToCurrency()),
+                    owner -> new ArrayList<>()).add(pair);
+        }
+        if (byOwner.size() == 1) {
+            Map.Entry<Replica, List<CurrencyPairDto>> only = byOwner.entrySet().iterator().next();
+            return replicas.call(only.getKey(), replica -> currencyExchangeClient.getExchangeRates(replica, pairs));
+        }
+
+        List<Future<BatchRateResponseDto>> parts = new ArrayList<>(byOwner.size());
+        try {
+            byOwner.forEach((owner, ownedPairs) -> parts.add(attemptExecutor.submit(contextSnapshotFactory
+                    .captureAll()
+                    .wrap(() -> replicas.call(owner,
+                            replica -> currencyExchangeClient.getExchangeRates(replica, ownedPairs))))));
+            BatchRateResponseDto merged = BatchRateResponseDto.builder()
+                    .version(Long.MAX_VALUE)
+                    .rates(new ArrayList<>(pairs.size()))
+                    .missing(new ArrayList<>())
+                    .build();
+            for (Future<BatchRateResponseDto> part : parts) {
+                BatchRateResponseDto response = part.get();
+                // Shards may be on different table versions; report the oldest
+                merged.setVersion(Math.min(merged.getVersion(), response.getVersion()));
+                merged.getRates().addAll(response.getRates());
+                if (response.getMissing() != null) {
+                    merged.getMissing().addAll(response.getMissing());
+                }
+            }
+            return merged;
+        } catch (ExecutionException e) {
+            throw rethrow(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for currency-exchange", e);
+        } finally {
+            parts.forEach(part -> part.cancel(true));
+        }
+    }
+
+    private Callable<CurrencyExchangeDto> attempt(Replica replica, String fromCurrency, String toCurrency) {
+        // Trace context moves with the attempt to its thread
+        return contextSnapshotFactory.captureAll().wrap(() -> {
+            long start = System.nanoTime();
+            CurrencyExchangeDto rate = replicas.call(replica,
+                    uri -> currencyExchangeClient.getExchangeRate(uri, fromCurrency, toCurrency));
+            attemptLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return rate;
+        });
+    }
+
+    private Mono<Outcome> reactiveAttempt(Replica replica, String fromCurrency, String toCurrency, boolean hedge) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return replicas.call(replica,
+                            reactiveCurrencyExchangeClient.getExchangeRate(replica.uri(), fromCurrency, toCurrency))
+                    .doOnNext(rate -> attemptLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .map(rate -> new Outcome(rate, null, hedge))
+                    .onErrorResume(e -> Mono.just(new Outcome(null, e, hedge)));
+        });
+    }
+
+    private record Outcome(CurrencyExchangeDto rate, Throwable failure, boolean hedge) {
+    }
+
+    /**
+     * The configured percentile of recent attempt latency, recomputed at most once a second
+     */
+    long hedgeDelayNanos() {
+        long now = System.nanoTime();
+        if (now - delayComputedAt >= DELAY_REFRESH_NANOS) {
+            delayComputedAt = now;
+            long observed = maxDelayNanos;
+            if (attemptLatency.count() >= MIN_SAMPLES) {
+                for (ValueAtPercentile value : attemptLatency.takeSnapshot().percentileValues()) {
+                    observed = (long) value.value(TimeUnit.NANOSECONDS);
+                }
+            }
+            delayNanos = Math.clamp(observed, minDelayNanos, maxDelayNanos);
+        }
+        return delayNanos;
+    }
+
+    private void earnBudget() {
+        budget.accumulateAndGet(tokensPerCall, (tokens, earned) -> Math.min(MAX_TOKENS, tokens + earned));
+    }
+
+    private boolean spendBudget() {
+        long tokens;
+        do {
+            tokens = budget.get();
+            if (tokens < TOKEN) {
+                budgetExhausted.increment();
+                return false;
+            }
+        } while (!budget.compareAndSet(tokens, tokens - TOKEN));
+        hedgesSent.increment();
+        return true;
+    }
+
+    /**
+     * A 4xx is the same on every replica, so there is no point waiting for the other attempt
+     */
+    private static boolean isDefinite(Throwable failure) {
+        return CurrencyExchangeReplicas.isClientError(failure);
+    }
+
+    private static RuntimeException rethrow(ExecutionException e) {
+        return e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+    }
+}
@@ -0,0 +1,95 @@
+package com.amsidh.mvc.client;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Consistent hash ring over currency pair keys. Every member owns many points on the ring
+ * so pairs spread evenly, and a pair belongs to the first member clockwise from its hash.
+ * Adding or removing a member only moves the pairs on the arcs that member gains or loses;
+ * skipping a member at lookup time (such as an ejected replica) moves only its own pairs,
+ * each to the next member on the ring.
+ */
+final class PairRing<T> {
+
+    private final long[] points;
+    private final Object[] owners;
+    private final int memberCount;
+
+    PairRing(List<T> members, Function<T, String> id, int pointsPerMember) {
+        this.memberCount = members.size();
+        long[][] entries = new long[members.size() * pointsPerMember][];
+        int next = 0;
+        for (int m = 0; m < members.size(); m++) {
+            String memberId = id.apply(members.get(m));
+            for (int p = 0; p < pointsPerMember; p++) {
+                entries[next++] = new long[] { hash(memberId + "#" + p), m };
+            }
+        }
+        Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+        this.points = new long[entries.length];
+        this.owners = new Object[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            points[i] = entries[i][0];
+            owners[i] = members.get((int) entries[i][1]);
+        }
+    }
+
+    static String key(String fromCurrency, String toCurrency) {
+        return fromCurrency.toUpperCase() + ":" + toCurrency.toUpperCase();
+    }
+
+    /**
+     * The first member clockwise from the key's hash that is eligible, or null if none is
+     */
+    @SuppressWarnings("unchecked")
+    T owner(String key, Predicate<T> eligible) {
+        if (points.length == 0) {
+            return null;
+        }
+        int start = Arrays.binarySearch(points, hash(key));
+        if (start < 0) {
+            start = -start - 1;
+        }
+        // Every member has been seen after at most all points; stop as soon as each was checked once
+        Object[] checked = new Object[memberCount];
+        int seen = 0;
+        for (int i = 0; i < points.length && seen < memberCount; i++) {
+            T candidate = (T) owners[(start + i) % points.length];
+            if (contains(checked, seen, candidate)) {
+                continue;
+            }
+            if (eligible.test(candidate)) {
+                return candidate;
+            }
+            checked[seen++] = candidate;
+        }
+        return null;
+    }
+
+    private static boolean contains(Object[] members, int count, Object member) {
+        for (int i = 0; i < count; i++) {
+            if (members[i] == member) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 64-bit FNV-1a of the UTF-8 bytes, finished with the SplitMix64 mixer for an even spread
+     */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+}
@@ -0,0 +1,36 @@
+package com.amsidh.mvc.client;
+
+import com.amsidh.mvc.dto.CurrencyExchangeDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+/**
+ * Non-blocking counterpart of {@link CurrencyExchangeClient} for the reactive conversion endpoint
+ */
+@Component
+@RequiredArgsConstructor
+public class ReactiveCurrencyExchangeClient {
+
+    private final WebClient currencyExchangeWebClient;
+
+    public Mono<CurrencyExchangeDto> getExchangeRate(String fromCurrency, String toCurrency) {
+        return currencyExchangeWebClient.get()
+                .uri("/currencyexchange/{fromCurrency}/to/{toCurrency}/rate", fromCurrency, toCurrency)
+                .retrieve()
+                .bodyToMono(CurrencyExchangeDto.class);
+    }
+
+    /**
+     * Same call sent to one replica instead of the configured base URL
+     */
+    public Mono<CurrencyExchangeDto> getExchangeRate(URI replica, String fromCurrency, String toCurrency) {
+        return currencyExchangeWebClient.get()
+                .uri(replica + "/currencyexchange/{fromCurrency}/to/{toCurrency}/rate", fromCurrency, toCurrency)
+                .retrieve()
+                .bodyToMono(CurrencyExchangeDto.class);
+    }
+}
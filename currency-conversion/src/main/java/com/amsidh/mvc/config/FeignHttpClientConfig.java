@@ -0,0 +1,195 @@
+package com.amsidh.mvc.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.io.DefaultHttpClientConnectionOperator;
+import org.apache.hc.client5.http.impl.io.ManagedHttpClientConnectionFactory;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.io.HttpClientConnectionOperator;
+import org.apache.hc.client5.http.io.ManagedHttpClientConnection;
+import org.apache.hc.client5.http.ssl.DefaultClientTlsStrategy;
+import org.apache.hc.client5.http.ssl.TlsSocketStrategy;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.config.RegistryBuilder;
+import org.apache.hc.core5.http.impl.io.HttpRequestExecutor;
+import org.apache.hc.core5.http.io.HttpClientConnection;
+import org.apache.hc.core5.http.io.HttpResponseInformationCallback;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.net.NamedEndpoint;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.openfeign.clientconfig.HttpClient5FeignConfiguration.HttpClientBuilderCustomizer;
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+
+/**
+ * Pooled keep-alive transport for the Feign client to currency-exchange.
+ * Replaces the connection manager Spring Cloud OpenFeign would build for Apache HttpClient 5
+ * with one that times connection setup, and customizes the client to evict idle connections
+ * and time the wait for response headers. Pool size and TTL come from
+ * {@code spring.cloud.openfeign.httpclient.*}.
+ */
+@Configuration
+@ConditionalOnProperty(value = "spring.cloud.openfeign.httpclient.hc5.enabled", matchIfMissing = true)
+public class FeignHttpClientConfig {
+
+    @Bean
+    public HttpClientConnectionManager hc5ConnectionManager(FeignHttpClientProperties properties,
+            MeterRegistry meterRegistry,
+            @Value("${currency-conversion.http-client.validate-after-inactivity:PT2S}") Duration validateAfterInactivity) {
+        HttpClientConnectionOperator operator = new TimedConnectionOperator(
+                new DefaultHttpClientConnectionOperator(null, null, RegistryBuilder.<TlsSocketStrategy>create()
+                        .register(URIScheme.HTTPS.id, DefaultClientTlsStrategy.createSystemDefault())
+                        .build()),
+                meterRegistry);
+
+        FeignHttpClientProperties.Hc5Properties hc5 = properties.getHc5();
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(operator,
+                PoolConcurrencyPolicy.valueOf(hc5.getPoolConcurrencyPolicy().name()),
+                PoolReusePolicy.valueOf(hc5.getPoolReusePolicy().name()),
+                TimeValue.NEG_ONE_MILLISECOND, ManagedHttpClientConnectionFactory.INSTANCE);
+        connectionManager.setMaxTotal(properties.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxConnectionsPerRoute());
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setTimeToLive(TimeValue.of(properties.getTimeToLive(), properties.getTimeToLiveUnit()))
+                // A pooled connection idle for longer is checked before reuse, so a peer close is not a failed call
+                .setValidateAfterInactivity(TimeValue.ofMilliseconds(validateAfterInactivity.toMillis()))
+                .build());
+        connectionManager.setDefaultSocketConfig(SocketConfig.custom()
+                .setSoTimeout(Timeout.of(hc5.getSocketTimeout(), hc5.getSocketTimeoutUnit()))
+                .setTcpNoDelay(true)
+                .build());
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "currency-exchange")
+                .bindTo(meterRegistry);
+        Gauge.builder("httpcomponents.httpclient.pool.saturation", connectionManager,
+                        manager -> (double) manager.getTotalStats().getLeased() / manager.getMaxTotal())
+                .description("Share of the pool's connections that are leased")
+                .tag("httpclient", "currency-exchange")
+                .register(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean
+    public HttpClientBuilderCustomizer keepAliveHttpClientCustomizer(MeterRegistry meterRegistry,
+            @Value("${currency-conversion.http-client.idle-eviction:PT30S}") Duration idleEviction) {
+        return builder -> builder
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEviction.toMillis()))
+                .setRequestExecutor(new TimedRequestExecutor(meterRegistry));
+    }
+
+    /**
+     * Records DNS resolution, TCP connect and TLS handshake of every new pooled connection
+     */
+    static class TimedConnectionOperator implements HttpClientConnectionOperator {
+
+        private final HttpClientConnectionOperator delegate;
+        private final MeterRegistry meterRegistry;
+
+        TimedConnectionOperator(HttpClientConnectionOperator delegate, MeterRegistry meterRegistry) {
+            this.delegate = delegate;
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public void connect(ManagedHttpClientConnection conn, HttpHost host, InetSocketAddress localAddress,
+                TimeValue connectTimeout, SocketConfig socketConfig, HttpContext context) throws IOException {
+            long start = System.nanoTime();
+            boolean connected = false;
+            try {
+                delegate.connect(conn, host, localAddress, connectTimeout, socketConfig, context);
+                connected = true;
+            } finally {
+                record(host, start, connected);
+            }
+        }
+
+        @Override
+        public void connect(ManagedHttpClientConnection conn, HttpHost endpointHost, NamedEndpoint endpointName,
+                InetSocketAddress localAddress, Timeout connectTimeout, SocketConfig socketConfig,
+                Object attachment, HttpContext context) throws IOException {
+            long start = System.nanoTime();
+            boolean connected = false;
+            try {
+                delegate.connect(conn, endpointHost, endpointName, localAddress, connectTimeout, socketConfig,
+                        attachment, context);
+                connected = true;
+            } finally {
+                record(endpointHost, start, connected);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public void upgrade(ManagedHttpClientConnection conn, HttpHost host, HttpContext context) throws IOException {
+            delegate.upgrade(conn, host, context);
+        }
+
+        @Override
+        public void upgrade(ManagedHttpClientConnection conn, HttpHost endpointHost, NamedEndpoint endpointName,
+                Object attachment, HttpContext context) throws IOException {
+            delegate.upgrade(conn, endpointHost, endpointName, attachment, context);
+        }
+
+        private void record(HttpHost host, long start, boolean connected) {
+            Timer.builder("http.client.connect")
+                    .description("Time to open a new pooled connection")
+                    .tag("host", host.getHostName())
+                    .tag("outcome", connected ? "SUCCESS" : "FAILURE")
+                    .register(meterRegistry)
+                    .record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Records time to first byte: from sending the request until its response headers are read.
+     * The body is streamed afterwards by the caller and is not included.
+     */
+    static class TimedRequestExecutor extends HttpRequestExecutor {
+
+        private final MeterRegistry meterRegistry;
+
+        TimedRequestExecutor(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public ClassicHttpResponse execute(ClassicHttpRequest request, HttpClientConnection conn,
+                HttpResponseInformationCallback informationCallback, HttpContext context)
+                throws IOException, HttpException {
+            long start = System.nanoTime();
+            String outcome = "FAILURE";
+            try {
+                ClassicHttpResponse response = super.execute(request, conn, informationCallback, context);
+                outcome = response.getCode() < 500 ? "SUCCESS" : "SERVER_ERROR";
+                return response;
+            } finally {
+                Timer.builder("http.client.ttfb")
+                        .description("Time from sending a request until its response headers arrive")
+                        .tag("host", request.getAuthority() != null ? request.getAuthority().getHostName() : "none")
+                        .tag("outcome", outcome)
+                        .register(meterRegistry)
+                        .record(Duration.ofNanos(System.nanoTime() - start));
+            }
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.amsidh.mvc.config;
 
+import com.amsidh.mvc.common.deadline.Deadline;
+import com.amsidh.mvc.common.deadline.DeadlineExceededException;
+import com.amsidh.mvc.resilience.AdaptiveConcurrencyLimiter;
+import feign.FeignException;
 import io.github.resilience4j.bulkhead.Bulkhead;
 import io.github.resilience4j.bulkhead.BulkheadConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
@@ -8,8 +12,13 @@ import io.github.resilience4j.ratelimiter.RateLimiter;
 import io.github.resilience4j.ratelimiter.RateLimiterConfig;
 import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import java.time.Duration;
 
@@ -36,28 +45,77 @@ public class Resilience4jConfig {
                 .waitDurationInOpenState(Duration.ofSeconds(60))
                 .slidingWindowSize(20)
                 .minimumNumberOfCalls(10)
+                // Unknown pair is an answer, not a failure; nor is a call our own deadline stopped
+                .ignoreExceptions(FeignException.NotFound.class, WebClientResponseException.NotFound.class,
+                        DeadlineExceededException.class)
+                // A timeout cut short to the deadline says nothing about currency-exchange either
+                .ignoreException(e -> Deadline.current() != null && Deadline.current().isExpired())
                 .build();
 
         return CircuitBreaker.of(CURRENCY_EXCHANGE_INSTANCE, config);
     }
 
+    /**
+     * No retry is started that could not begin before the request's deadline
+     */
     @Bean
-    public Retry currencyExchangeRetry() {
+    public Retry currencyExchangeRetry(MeterRegistry meterRegistry) {
+        Duration waitDuration = Duration.ofSeconds(1);
+        Counter expired = Counter.builder(Deadline.EXPIRED_METRIC)
+                .description("Work abandoned because the caller's deadline had passed")
+                .tag("stage", "retry")
+                .register(meterRegistry);
         RetryConfig config = RetryConfig.custom()
                 .maxAttempts(3)
-                .waitDuration(Duration.ofSeconds(1))
+                .waitDuration(waitDuration)
+                // Evaluated on the calling thread, where the request's deadline is bound
+                .retryOnException(e -> {
+                    Deadline deadline = Deadline.current();
+                    if (deadline != null && deadline.remaining().compareTo(waitDuration) <= 0) {
+                        expired.increment();
+                        return false;
+                    }
+                    return true;
+                })
+                // Retrying an unknown pair cannot succeed
+                .ignoreExceptions(FeignException.NotFound.class, WebClientResponseException.NotFound.class)
                 .build();
 
         return Retry.of(CURRENCY_EXCHANGE_INSTANCE, config);
     }
 
+    /**
+     * Starting limit, less the reactive share; AdaptiveConcurrencyLimiter resizes both from
+     * observed latency unless disabled
+     */
     @Bean
-    public Bulkhead currencyExchangeBulkhead() {
+    @Primary
+    public Bulkhead currencyExchangeBulkhead(
+            @Value("${currency-conversion.adaptive-concurrency.initial-limit:10}") int initialLimit,
+            @Value("${currency-conversion.adaptive-concurrency.reactive-share:0.25}") double reactiveShare) {
         BulkheadConfig config = BulkheadConfig.custom()
-                .maxConcurrentCalls(5)
+                .maxConcurrentCalls(initialLimit - AdaptiveConcurrencyLimiter.reactivePermits(initialLimit,
+                        reactiveShare))
                 .maxWaitDuration(Duration.ofSeconds(1))
                 .build();
 
         return Bulkhead.of(CURRENCY_EXCHANGE_INSTANCE, config);
     }
+
+    /**
+     * Bulkhead of the reactive path. A Resilience4j bulkhead waits for a permit on the subscribing
+     * thread, so this one never waits and a full bulkhead rejects at once. It holds the reactive
+     * share of the limit, so both bulkheads together stay within it.
+     */
+    @Bean
+    public Bulkhead currencyExchangeReactiveBulkhead(
+            @Value("${currency-conversion.adaptive-concurrency.initial-limit:10}") int initialLimit,
+            @Value("${currency-conversion.adaptive-concurrency.reactive-share:0.25}") double reactiveShare) {
+        BulkheadConfig config = BulkheadConfig.custom()
+                .maxConcurrentCalls(AdaptiveConcurrencyLimiter.reactivePermits(initialLimit, reactiveShare))
+                .maxWaitDuration(Duration.ZERO)
+                .build();
+
+        return Bulkhead.of(CURRENCY_EXCHANGE_INSTANCE + "-reactive", config);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.amsidh.mvc.config;
+
+import com.amsidh.mvc.common.deadline.Deadline;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+
+@Configuration
+public class WebClientConfig {
+
+    /**
+     * Non-blocking client for currency-exchange, with the same timeouts as the Feign client
+     * so both conversion modes are compared under equal conditions
+     */
+    @Bean
+    public WebClient currencyExchangeWebClient(WebClient.Builder webClientBuilder,
+            @Value("${currency-exchange.service.url:http://localhost:8181}") String baseUrl,
+            @Value("${spring.cloud.openfeign.client.config.default.connectTimeout:10000}") int connectTimeoutMillis,
+            @Value("${spring.cloud.openfeign.client.config.default.readTimeout:10000}") long readTimeoutMillis) {
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+                .responseTimeout(Duration.ofMillis(readTimeoutMillis));
+
+        return webClientBuilder
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                // The reactive path puts the request's deadline in the subscriber context
+                .filter((request, next) -> Mono.deferContextual(context -> {
+                    Deadline deadline = context.getOrDefault(Deadline.class, null);
+                    return deadline == null ? next.exchange(request) : next.exchange(ClientRequest.from(request)
+                            .header(Deadline.HEADER, Long.toString(deadline.remainingMillis()))
+                            .build());
+                }))
+                .build();
+    }
+}
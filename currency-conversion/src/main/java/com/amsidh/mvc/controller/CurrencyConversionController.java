@@ -1,23 +1,40 @@
 package com.amsidh.mvc.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.amsidh.mvc.cache.LocalRateSnapshot;
+import com.amsidh.mvc.common.deadline.Deadline;
+import com.amsidh.mvc.dto.BatchConversionResponseDto;
+import com.amsidh.mvc.dto.ConversionRequestDto;
 import com.amsidh.mvc.dto.CurrencyConversionDto;
 import com.amsidh.mvc.service.CurrencyConversionService;
+import com.amsidh.mvc.service.StreamingConversionService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -29,17 +46,26 @@ import lombok.extern.slf4j.Slf4j;
 public class CurrencyConversionController {
 
     private final CurrencyConversionService currencyConversionService;
+    private final StreamingConversionService streamingConversionService;
+    private final LocalRateSnapshot localRateSnapshot;
+
+    @Value("${currency-conversion.batch.max-items:10000}")
+    private int maxBatchItems;
 
     @GetMapping("/{fromCurrency}/to/{toCurrency}/{quantity}/calculate")
     @Operation(
         summary = "Convert currency amount",
         description = "Converts a specified quantity from one currency to another using the current exchange rate"
     )
+    @Parameter(in = ParameterIn.HEADER, name = Deadline.HEADER, required = false,
+        description = "Milliseconds the caller will wait; without it common-util.deadline.default applies",
+        schema = @Schema(type = "integer", example = "2000"))
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successful conversion",
             content = @Content(schema = @Schema(implementation = CurrencyConversionDto.class))),
         @ApiResponse(responseCode = "500", description = "Internal server error",
-            content = @Content)
+            content = @Content),
+        @ApiResponse(responseCode = "504", description = "Deadline already passed on arrival", content = @Content)
     })
     public ResponseEntity<CurrencyConversionDto> convertCurrency(
             @Parameter(description = "Source currency code", example = "USD") @PathVariable String fromCurrency,
@@ -59,4 +85,60 @@ public class CurrencyConversionController {
             return ResponseEntity.internalServerError().build();
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+        summary = "Convert currency amounts in batch",
+        description = "Converts many amounts, fetching each distinct currency pair once. "
+            + "Pairs that cannot be fetched use fallback rates and are flagged per item"
+    )
+    @Parameter(in = ParameterIn.HEADER, name = Deadline.HEADER, required = false,
+        description = "Milliseconds the caller will wait; without it common-util.deadline.default applies",
+        schema = @Schema(type = "integer", example = "2000"))
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch converted; invalid items carry an error",
+            content = @Content(schema = @Schema(implementation = BatchConversionResponseDto.class))),
+        @ApiResponse(responseCode = "400", description = "Empty or oversized batch", content = @Content),
+        @ApiResponse(responseCode = "504", description = "Deadline already passed on arrival", content = @Content)
+    })
+    public ResponseEntity<BatchConversionResponseDto> convertCurrencies(
+            @RequestBody List<ConversionRequestDto> conversions) {
+        if (conversions == null || conversions.isEmpty() || conversions.size() > maxBatchItems) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(currencyConversionService.convertCurrencies(conversions));
+    }
+
+    @PostMapping(value = "/stream",
+        consumes = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE,
+            StreamingConversionService.TEXT_CSV_VALUE },
+        produces = { MediaType.APPLICATION_NDJSON_VALUE, StreamingConversionService.TEXT_CSV_VALUE })
+    @Operation(
+        summary = "Convert a stream of currency amounts",
+        description = "Reads NDJSON, a JSON array or CSV (from,to,quantity) row by row and streams one result "
+            + "row per input row, converted against the locally held rate snapshot. "
+            + "CSV input gives CSV output, anything else NDJSON"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Rows converted; invalid rows carry an error",
+            content = @Content),
+        @ApiResponse(responseCode = "503", description = "No rate snapshot could be loaded", content = @Content)
+    })
+    public void convertCurrencyStream(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body, HttpServletResponse response) throws IOException {
+        LocalRateSnapshot.Rates rates;
+        try {
+            rates = localRateSnapshot.current();
+        } catch (Exception ex) {
+            log.error("Rate snapshot unavailable for stream conversion: {}", ex.getMessage());
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+
+        MediaType requestType = MediaType.parseMediaType(contentType);
+        response.setContentType(streamingConversionService.responseContentType(requestType));
+        response.setHeader("X-Rate-Snapshot-Version", Long.toString(rates.version()));
+        streamingConversionService.convert(body, response.getOutputStream(), requestType, rates);
+    }
+}
@@ -0,0 +1,60 @@
+package com.amsidh.mvc.controller;
+
+import java.math.BigDecimal;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.amsidh.mvc.common.deadline.Deadline;
+import com.amsidh.mvc.dto.CurrencyConversionDto;
+import com.amsidh.mvc.service.ReactiveCurrencyConversionService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variant of {@link CurrencyConversionController}. The request thread is
+ * released while currency-exchange is called and the response is written on completion.
+ */
+@RestController
+@Tag(name = "Currency Conversion (reactive)", description = "Non-blocking currency conversion")
+@RequestMapping("/currencyconversion/reactive")
+@RequiredArgsConstructor
+public class ReactiveCurrencyConversionController {
+
+    private final ReactiveCurrencyConversionService reactiveCurrencyConversionService;
+
+    @GetMapping("/{fromCurrency}/to/{toCurrency}/{quantity}/calculate")
+    @Operation(
+        summary = "Convert currency amount without blocking",
+        description = "Same result as the blocking endpoint; no request thread waits on currency-exchange"
+    )
+    @Parameter(in = ParameterIn.HEADER, name = Deadline.HEADER, required = false,
+        description = "Milliseconds the caller will wait; without it common-util.deadline.default applies",
+        schema = @Schema(type = "integer", example = "2000"))
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successful conversion",
+            content = @Content(schema = @Schema(implementation = CurrencyConversionDto.class))),
+        @ApiResponse(responseCode = "500", description = "Internal server error",
+            content = @Content),
+        @ApiResponse(responseCode = "504", description = "Deadline already passed on arrival", content = @Content)
+    })
+    public Mono<ResponseEntity<CurrencyConversionDto>> convertCurrency(
+            @Parameter(description = "Source currency code", example = "USD") @PathVariable String fromCurrency,
+            @Parameter(description = "Target currency code", example = "INR") @PathVariable String toCurrency,
+            @Parameter(description = "Amount to convert", example = "100.00") @PathVariable BigDecimal quantity) {
+        return reactiveCurrencyConversionService.convertCurrency(fromCurrency, toCurrency, quantity)
+                .map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,24 @@
+package com.amsidh.mvc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchConversionItemDto {
+    private String fromCurrency;
+    private String toCurrency;
+    private BigDecimal quantity;
+    private BigDecimal rate;
+    private BigDecimal totalAmount;
+    // True when the rate came from a fallback provider instead of currency-exchange
+    private boolean fallback;
+    // Set instead of rate and totalAmount when the item itself is invalid
+    private String error;
+}
@@ -0,0 +1,20 @@
+package com.amsidh.mvc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchConversionResponseDto {
+    // In request order
+    private List<BatchConversionItemDto> conversions;
+    private int distinctPairs;
+    private int fallbackPairs;
+    private String currencyConversionServiceEnvironment;
+}
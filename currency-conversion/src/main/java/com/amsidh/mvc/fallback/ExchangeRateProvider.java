@@ -36,4 +36,14 @@ public interface ExchangeRateProvider {
      * @return priority order
      */
     int getPriority();
+
+    /**
+     * Check if the provider always answers but should only be used when every
+     * other provider has failed; such a provider is never raced or re-ranked
+     *
+     * @return true for a last resort provider
+     */
+    default boolean isLastResort() {
+        return false;
+    }
 }
\ No newline at end of file
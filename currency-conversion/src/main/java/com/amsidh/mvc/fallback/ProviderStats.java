@@ -0,0 +1,82 @@
+package com.amsidh.mvc.fallback;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measured success rate and latency of one fallback provider, used to rank providers.
+ * Latency percentiles come from a decaying Micrometer timer, so old samples age out.
+ */
+public class ProviderStats {
+
+    private static final double SUCCESS_WEIGHT = 0.1;
+    private static final double RANKING_PERCENTILE = 0.9;
+    private static final int MIN_SAMPLES = 10;
+
+    private final Timer latency;
+    private final Counter successes;
+    private final Counter failures;
+
+    private double successRate = 1.0;
+    private long samples;
+
+    public ProviderStats(String providerName, MeterRegistry meterRegistry) {
+        this.latency = Timer.builder("fallback.provider.latency")
+                .description("Time a fallback provider took to answer")
+                .tag("provider", providerName)
+                .publishPercentiles(0.5, RANKING_PERCENTILE, 0.99)
+                .register(meterRegistry);
+        this.successes = calls(meterRegistry, providerName, "success");
+        this.failures = calls(meterRegistry, providerName, "failure");
+    }
+
+    private static Counter calls(MeterRegistry meterRegistry, String providerName, String outcome) {
+        return Counter.builder("fallback.provider.calls")
+                .description("Fallback provider calls by whether they returned a valid rate")
+                .tag("provider", providerName)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record one call; a call without a valid rate counts as a failure
+     */
+    public synchronized void record(long nanos, boolean success) {
+        latency.record(nanos, TimeUnit.NANOSECONDS);
+        (success ? successes : failures).increment();
+        samples++;
+        successRate += SUCCESS_WEIGHT * ((success ? 1.0 : 0.0) - successRate);
+    }
+
+    public synchronized double getSuccessRate() {
+        return successRate;
+    }
+
+    /**
+     * @return the 90th percentile latency in milliseconds, or 0 before any call
+     */
+    public double getLatencyP90Millis() {
+        for (ValueAtPercentile percentile : latency.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == RANKING_PERCENTILE) {
+                return percentile.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Expected cost of getting a valid rate: tail latency divided by success rate.
+     * Lower is better; a provider with too few samples scores 0 so it gets tried.
+     */
+    public synchronized double score() {
+        if (samples < MIN_SAMPLES) {
+            return 0;
+        }
+        // Latency under a millisecond is noise; in-memory providers are ranked by success rate alone
+        return Math.max(getLatencyP90Millis(), 1.0) / Math.max(successRate, 0.01);
+    }
+}
@@ -39,4 +39,9 @@ public class DefaultExchangeRateProvider implements ExchangeRateProvider {
     public int getPriority() {
         return 3; // Lowest priority - last resort
     }
+
+    @Override
+    public boolean isLastResort() {
+        return true; // Always answers, so it would win every race
+    }
 }
\ No newline at end of file
@@ -0,0 +1,224 @@
+package com.amsidh.mvc.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sizes the currency-exchange bulkhead from observed latency (AIMD).
+ * Every call the circuit breaker records is a sample. The limit grows by one after a fast
+ * call made while at least half the permits were in use, and shrinks by the backoff ratio
+ * after a failed call or one that took longer than the tolerated multiple of the baseline.
+ * The baseline is a slow moving average of latency, so a lasting slowdown becomes the new
+ * normal instead of holding the limit at the minimum.
+ * <p>
+ * Samples arrive on the calling thread while it still holds its permit, and shrinking a
+ * full bulkhead waits for permits to come back. The new limit is therefore applied on a
+ * thread of its own, which only ever applies the latest limit; callers never wait for it.
+ * <p>
+ * The blocking and the reactive bulkhead draw from one budget: the reactive bulkhead gets
+ * its share of the limit and the blocking one the rest, so together they never have more
+ * than the limit of calls in flight to currency-exchange.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "currency-conversion.adaptive-concurrency.enabled", matchIfMissing = true)
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double BASELINE_WEIGHT = 0.05;
+    private static final double RECENT_WEIGHT = 0.3;
+    private static final int WARMUP_SAMPLES = 10;
+
+    private final Bulkhead bulkhead;
+    private final Bulkhead reactiveBulkhead;
+    private final double reactiveShare;
+    private final Executor applier;
+    private final AtomicBoolean applyPending = new AtomicBoolean();
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final long maxLatencyNanos;
+    private final Counter increases;
+    private final Counter decreases;
+
+    private int limit;
+    private double baselineNanos;
+    private double recentNanos;
+    private long samples;
+
+    @Autowired
+    public AdaptiveConcurrencyLimiter(Bulkhead bulkhead,
+            @Qualifier("currencyExchangeReactiveBulkhead") Bulkhead reactiveBulkhead, CircuitBreaker circuitBreaker,
+            MeterRegistry meterRegistry,
+            @Value("${currency-conversion.adaptive-concurrency.min-limit:2}") int minLimit,
+            @Value("${currency-conversion.adaptive-concurrency.max-limit:200}") int maxLimit,
+            @Value("${currency-conversion.adaptive-concurrency.backoff-ratio:0.9}") double backoffRatio,
+            @Value("${currency-conversion.adaptive-concurrency.latency-tolerance:2.0}") double latencyTolerance,
+            @Value("${currency-conversion.adaptive-concurrency.max-latency:PT3S}") Duration maxLatency,
+            @Value("${currency-conversion.adaptive-concurrency.reactive-share:0.25}") double reactiveShare) {
+        this(bulkhead, reactiveBulkhead, circuitBreaker, meterRegistry, minLimit, maxLimit, backoffRatio,
+                latencyTolerance, maxLatency, reactiveShare, Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "adaptive-concurrency");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    AdaptiveConcurrencyLimiter(Bulkhead bulkhead, Bulkhead reactiveBulkhead, CircuitBreaker circuitBreaker,
+            MeterRegistry meterRegistry, int minLimit, int maxLimit, double backoffRatio, double latencyTolerance,
+            Duration maxLatency, double reactiveShare, Executor applier) {
+        this.bulkhead = bulkhead;
+        this.reactiveBulkhead = reactiveBulkhead;
+        this.reactiveShare = reactiveShare;
+        this.applier = applier;
+        this.minLimit = Math.max(minLimit, 2); // One permit for each bulkhead
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.maxLatencyNanos = maxLatency.toNanos();
+        this.limit = Math.clamp(bulkhead.getBulkheadConfig().getMaxConcurrentCalls()
+                + reactiveBulkhead.getBulkheadConfig().getMaxConcurrentCalls(), this.minLimit, maxLimit);
+        this.increases = adjustments(meterRegistry, "increase");
+        this.decreases = adjustments(meterRegistry, "decrease");
+        // Nothing holds a permit yet, so the starting limit can be applied right here
+        applyLatestLimit();
+
+        Gauge.builder("adaptive_concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current concurrent call limit to currency-exchange")
+                .register(meterRegistry);
+        Gauge.builder("adaptive_concurrency.in_flight", this, AdaptiveConcurrencyLimiter::inFlight)
+                .description("Calls to currency-exchange holding a permit")
+                .register(meterRegistry);
+        Gauge.builder("adaptive_concurrency.latency", this, limiter -> limiter.baselineNanos / 1_000_000)
+                .description("Baseline latency of calls to currency-exchange in milliseconds")
+                .tag("window", "baseline")
+                .register(meterRegistry);
+        Gauge.builder("adaptive_concurrency.latency", this, limiter -> limiter.recentNanos / 1_000_000)
+                .description("Recent latency of calls to currency-exchange in milliseconds")
+                .tag("window", "recent")
+                .register(meterRegistry);
+        Counter rejected = Counter.builder("adaptive_concurrency.rejected")
+                .description("Calls refused because the limit was reached and no permit freed up in time")
+                .register(meterRegistry);
+
+        circuitBreaker.getEventPublisher()
+                .onSuccess(event -> onSample(event.getElapsedDuration(), false))
+                // An unknown pair is a normal answer, so it counts as a latency sample
+                .onIgnoredError(event -> onSample(event.getElapsedDuration(), false))
+                .onError(event -> onSample(event.getElapsedDuration(), true));
+        bulkhead.getEventPublisher().onCallRejected(event -> rejected.increment());
+        reactiveBulkhead.getEventPublisher().onCallRejected(event -> rejected.increment());
+    }
+
+    private static Counter adjustments(MeterRegistry meterRegistry, String direction) {
+        return Counter.builder("adaptive_concurrency.adjustments")
+                .description("Changes of the concurrent call limit")
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Feed one completed call into the limit
+     *
+     * @param failed whether the call failed in a way that indicates overload
+     */
+    synchronized void onSample(Duration elapsed, boolean failed) {
+        long nanos = elapsed.toNanos();
+        samples++;
+        recentNanos = samples == 1 ? nanos : recentNanos + RECENT_WEIGHT * (nanos - recentNanos);
+
+        boolean slow = nanos > maxLatencyNanos
+                || (samples > WARMUP_SAMPLES && recentNanos > baselineNanos * latencyTolerance);
+        if (failed || slow) {
+            int reduced = Math.max(minLimit, (int) (limit * backoffRatio));
+            if (reduced < limit) {
+                limit = reduced;
+                decreases.increment();
+                scheduleApply();
+            }
+        } else if (inFlight() * 2 >= limit && limit < maxLimit) {
+            // Growing only while the permits are in use keeps an idle service from drifting to the maximum
+            limit++;
+            increases.increment();
+            scheduleApply();
+        }
+
+        if (!failed) {
+            baselineNanos = samples == 1 ? nanos : baselineNanos + BASELINE_WEIGHT * (nanos - baselineNanos);
+        }
+    }
+
+    private void scheduleApply() {
+        if (applyPending.compareAndSet(false, true)) {
+            applier.execute(this::applyLatestLimit);
+        }
+    }
+
+    /**
+     * Split the current limit between the bulkheads. Shrinking blocks until enough permits are
+     * returned, which is why this never runs on a caller's thread or under the monitor.
+     */
+    private void applyLatestLimit() {
+        applyPending.set(false);
+        int target = getLimit();
+        int reactive = reactivePermits(target, reactiveShare);
+        resize(bulkhead, target - reactive);
+        resize(reactiveBulkhead, reactive);
+        log.debug("Concurrent call limit to currency-exchange is now {} ({} reactive)", target, reactive);
+    }
+
+    /**
+     * Permits of the reactive bulkhead out of a limit of at least two; each bulkhead keeps one
+     */
+    public static int reactivePermits(int limit, double reactiveShare) {
+        return Math.clamp((int) (limit * reactiveShare), 1, limit - 1);
+    }
+
+    private static void resize(Bulkhead bulkhead, int permits) {
+        if (bulkhead.getBulkheadConfig().getMaxConcurrentCalls() != permits) {
+            bulkhead.changeConfig(BulkheadConfig.from(bulkhead.getBulkheadConfig())
+                    .maxConcurrentCalls(permits)
+                    .build());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (applier instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Permits in use on both bulkheads, which share the limit
+     */
+    int inFlight() {
+        return inUse(bulkhead) + inUse(reactiveBulkhead);
+    }
+
+    private static int inUse(Bulkhead bulkhead) {
+        Bulkhead.Metrics metrics = bulkhead.getMetrics();
+        return metrics.getMaxAllowedConcurrentCalls() - metrics.getAvailableConcurrentCalls();
+    }
+}
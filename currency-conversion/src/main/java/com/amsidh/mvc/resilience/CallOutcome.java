@@ -0,0 +1,43 @@
+package com.amsidh.mvc.resilience;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Result of a call to currency-exchange through the {@link ResilienceChain}: the value,
+ * a rejection by one of the guards in front of the call, or the failure of the call itself.
+ * Rejections are the common case under load, so they are plain values with no exception
+ * or stack trace behind them, and one shared instance per guard is used.
+ */
+public sealed interface CallOutcome<T> {
+
+    /**
+     * Guard that turned the call away before it was made
+     */
+    enum Rejection {
+        CLIENT_RATE_LIMIT, RATE_LIMIT, BULKHEAD, CIRCUIT_OPEN
+    }
+
+    record Success<T>(T value) implements CallOutcome<T> {
+    }
+
+    record Rejected<T>(Rejection by) implements CallOutcome<T> {
+
+        private static final Map<Rejection, Rejected<?>> INSTANCES = new EnumMap<>(Rejection.class);
+
+        static {
+            for (Rejection rejection : Rejection.values()) {
+                INSTANCES.put(rejection, new Rejected<>(rejection));
+            }
+        }
+    }
+
+    record Failed<T>(Throwable cause) implements CallOutcome<T> {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> CallOutcome<T> rejected(Rejection by) {
+        // Carries no value, so one instance serves every type
+        return (CallOutcome<T>) Rejected.INSTANCES.get(by);
+    }
+}
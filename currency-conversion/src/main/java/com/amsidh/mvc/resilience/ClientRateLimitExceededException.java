@@ -0,0 +1,14 @@
+package com.amsidh.mvc.resilience;
+
+/**
+ * Thrown when a client has used up its share of calls to currency-exchange.
+ * Rejections are frequent under load, so one shared instance without a stack trace is thrown.
+ */
+public class ClientRateLimitExceededException extends RuntimeException {
+
+    static final ClientRateLimitExceededException INSTANCE = new ClientRateLimitExceededException();
+
+    private ClientRateLimitExceededException() {
+        super("Client rate limit for currency-exchange exceeded", null, false, false);
+    }
+}
@@ -0,0 +1,196 @@
+package com.amsidh.mvc.resilience;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client token buckets in front of the global currency-exchange rate limiter, so one
+ * busy caller runs out of its own share instead of the budget of everyone else.
+ * Each active client refills at the global rate divided by the number of active clients,
+ * those that called within the active window; idle buckets take no share.
+ * Buckets live in a {@link ConcurrentHashMap} and each is a single {@link AtomicLong}
+ * updated by compare-and-set (GCRA), so acquiring and rejecting never take a lock.
+ * A bucket idle for the idle timeout is full again and is dropped, and at most
+ * max-clients buckets exist; further clients share one overflow bucket.
+ */
+@Component
+public class ClientRateLimiter {
+
+    static final String OVERFLOW_CLIENT = "overflow";
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicInteger activeClients = new AtomicInteger();
+    private final boolean enabled;
+    private final String apiKeyHeader;
+    private final int maxClients;
+    private final long idleTimeoutNanos;
+    private final long activeWindowNanos;
+    private final long globalIntervalNanos;
+    private final int burst;
+    private final LongSupplier nanoClock;
+    private final Counter rejected;
+
+    @Autowired
+    public ClientRateLimiter(RateLimiter rateLimiter, MeterRegistry meterRegistry,
+            @Value("${currency-conversion.client-rate-limit.enabled:true}") boolean enabled,
+            @Value("${currency-conversion.client-rate-limit.api-key-header:X-API-Key}") String apiKeyHeader,
+            @Value("${currency-conversion.client-rate-limit.max-clients:10000}") int maxClients,
+            @Value("${currency-conversion.client-rate-limit.idle-timeout:PT5M}") Duration idleTimeout,
+            @Value("${currency-conversion.client-rate-limit.active-window:PT10S}") Duration activeWindow) {
+        this(rateLimiter.getRateLimiterConfig(), meterRegistry, enabled, apiKeyHeader, maxClients, idleTimeout,
+                activeWindow, System::nanoTime);
+    }
+
+    ClientRateLimiter(RateLimiterConfig globalConfig, MeterRegistry meterRegistry, boolean enabled,
+            String apiKeyHeader, int maxClients, Duration idleTimeout, Duration activeWindow,
+            LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.apiKeyHeader = apiKeyHeader;
+        this.maxClients = maxClients;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.activeWindowNanos = activeWindow.toNanos();
+        // The global limiter allows limitForPeriod calls per refresh period, i.e. one per interval
+        this.burst = globalConfig.getLimitForPeriod();
+        this.globalIntervalNanos = globalConfig.getLimitRefreshPeriod().toNanos() / burst;
+        this.nanoClock = nanoClock;
+        this.rejected = Counter.builder("client_rate_limit.rejected")
+                .description("Calls to currency-exchange refused because the client used up its share")
+                .register(meterRegistry);
+        Gauge.builder("client_rate_limit.clients", buckets, Map::size)
+                .description("Clients with a rate limit bucket")
+                .register(meterRegistry);
+        Gauge.builder("client_rate_limit.active_clients", activeClients, AtomicInteger::get)
+                .description("Clients sharing the global rate, those that called within the active window")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Identify the client of the request bound to the current thread:
+     * the API key header if sent, otherwise the remote address
+     *
+     * @return the client key, or null outside a request (background refreshes)
+     */
+    public String currentClient() {
+        if (!enabled || !(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return null;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        String apiKey = request.getHeader(apiKeyHeader);
+        return apiKey != null && !apiKey.isBlank() ? "key:" + apiKey : "ip:" + request.getRemoteAddr();
+    }
+
+    /**
+     * Take a token from the client's bucket
+     *
+     * @throws ClientRateLimitExceededException if the bucket is empty
+     */
+    public void acquirePermission(String client) {
+        if (!tryAcquirePermission(client)) {
+            throw ClientRateLimitExceededException.INSTANCE;
+        }
+    }
+
+    /**
+     * Take a token from the client's bucket
+     *
+     * @return false if the bucket is empty
+     */
+    public boolean tryAcquirePermission(String client) {
+        if (!tryAcquire(client)) {
+            rejected.increment();
+            return false;
+        }
+        return true;
+    }
+
+    boolean tryAcquire(String client) {
+        if (!enabled || client == null) {
+            return true;
+        }
+        Bucket bucket = buckets.get(client);
+        if (bucket == null) {
+            bucket = buckets.size() < maxClients
+                    ? buckets.computeIfAbsent(client, key -> new Bucket())
+                    : buckets.computeIfAbsent(OVERFLOW_CLIENT, key -> new Bucket());
+        }
+
+        long now = nanoClock.getAsLong();
+        bucket.lastUsed = now;
+        if (bucket.active.compareAndSet(false, true)) {
+            activeClients.incrementAndGet();
+        }
+        long interval = globalIntervalNanos * Math.max(1, activeClients.get());
+        while (true) {
+            // Theoretical arrival time: when the bucket is full again if this call is admitted
+            long arrival = bucket.arrival.get();
+            long next = Math.max(arrival, now) + interval;
+            if (next - now > interval * burst) {
+                return false;
+            }
+            if (bucket.arrival.compareAndSet(arrival, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Recount the clients that called within the active window; the rest stop taking a share
+     * of the global rate until they call again. A call racing the recount may be missed until
+     * the next one, which only errs towards a larger share.
+     */
+    @Scheduled(fixedDelayString = "${currency-conversion.client-rate-limit.active-window:PT10S}")
+    public void refreshActiveClients() {
+        long now = nanoClock.getAsLong();
+        int active = 0;
+        for (Bucket bucket : buckets.values()) {
+            boolean recent = now - bucket.lastUsed <= activeWindowNanos;
+            bucket.active.set(recent);
+            if (recent) {
+                active++;
+            }
+        }
+        activeClients.set(active);
+    }
+
+    /**
+     * Drop buckets idle for longer than the idle timeout; they are full, so a new one is equivalent
+     */
+    @Scheduled(fixedDelayString = "${currency-conversion.client-rate-limit.idle-timeout:PT5M}")
+    public void evictIdleBuckets() {
+        long now = nanoClock.getAsLong();
+        buckets.values().removeIf(bucket -> now - bucket.lastUsed > idleTimeoutNanos
+                && bucket.arrival.get() <= now);
+    }
+
+    int clients() {
+        return buckets.size();
+    }
+
+    int activeClients() {
+        return activeClients.get();
+    }
+
+    private static final class Bucket {
+        private final AtomicLong arrival = new AtomicLong(Long.MIN_VALUE / 2);
+        private final AtomicBoolean active = new AtomicBoolean();
+        private volatile long lastUsed;
+    }
+}
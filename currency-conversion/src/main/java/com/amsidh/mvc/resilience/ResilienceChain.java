@@ -0,0 +1,81 @@
+package com.amsidh.mvc.resilience;
+
+import com.amsidh.mvc.resilience.CallOutcome.Rejection;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.retry.Retry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs a blocking call to currency-exchange behind the client rate limiter, rate limiter,
+ * bulkhead, circuit breaker and retry, in that order, and reports how it went as a
+ * {@link CallOutcome}. A call shared by several callers checks each caller's client share
+ * on its own with {@link #tryAcquireClientPermission} and runs the rest with {@link #executeShared}. Guards are asked with their non-throwing try methods, so a
+ * rejected call creates no RequestNotPermitted, BulkheadFullException or
+ * CallNotPermittedException. The guards publish the same events and metrics as the
+ * Resilience4j decorators they replace.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResilienceChain {
+
+    private final ClientRateLimiter clientRateLimiter;
+    private final RateLimiter rateLimiter;
+    private final Bulkhead bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final Retry retry;
+
+    public <T> CallOutcome<T> execute(Supplier<T> call) {
+        // The caller's own share first, so a busy client is turned away without using the global budget
+        if (!tryAcquireClientPermission()) {
+            return CallOutcome.rejected(Rejection.CLIENT_RATE_LIMIT);
+        }
+        return executeShared(call);
+    }
+
+    /**
+     * Take a permit from the share of the client of the request bound to this thread
+     *
+     * @return false if the client used up its share
+     */
+    public boolean tryAcquireClientPermission() {
+        return clientRateLimiter.tryAcquirePermission(clientRateLimiter.currentClient());
+    }
+
+    /**
+     * Run the call behind the global guards only, for a call made on behalf of callers
+     * whose client shares were already checked
+     */
+    public <T> CallOutcome<T> executeShared(Supplier<T> call) {
+        if (!rateLimiter.acquirePermission()) {
+            return CallOutcome.rejected(Rejection.RATE_LIMIT);
+        }
+        if (!bulkhead.tryAcquirePermission()) {
+            return CallOutcome.rejected(Rejection.BULKHEAD);
+        }
+        try {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                return CallOutcome.rejected(Rejection.CIRCUIT_OPEN);
+            }
+            long start = circuitBreaker.getCurrentTimestamp();
+            try {
+                T value = retry.executeSupplier(call);
+                circuitBreaker.onResult(circuitBreaker.getCurrentTimestamp() - start,
+                        circuitBreaker.getTimestampUnit(), value);
+                rateLimiter.onResult(value);
+                return new CallOutcome.Success<>(value);
+            } catch (RuntimeException e) {
+                circuitBreaker.onError(circuitBreaker.getCurrentTimestamp() - start,
+                        circuitBreaker.getTimestampUnit(), e);
+                rateLimiter.onError(e);
+                return new CallOutcome.Failed<>(e);
+            }
+        } finally {
+            bulkhead.onComplete();
+        }
+    }
+}
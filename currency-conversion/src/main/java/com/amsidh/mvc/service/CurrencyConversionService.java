@@ -1,10 +1,19 @@
 package com.amsidh.mvc.service;
 
+import com.amsidh.mvc.dto.BatchConversionResponseDto;
+import com.amsidh.mvc.dto.ConversionRequestDto;
 import com.amsidh.mvc.dto.CurrencyConversionDto;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 public interface CurrencyConversionService {
     CurrencyConversionDto convertCurrency(String fromCurrency, String toCurrency,
             BigDecimal quantity);
-}
\ No newline at end of file
+
+    /**
+     * Convert many amounts, fetching each distinct currency pair once.
+     * Pairs that cannot be fetched fall back individually and are flagged per item.
+     */
+    BatchConversionResponseDto convertCurrencies(List<ConversionRequestDto> conversions);
+}
@@ -1,40 +1,110 @@
 package com.amsidh.mvc.service;
 
+import com.amsidh.mvc.common.deadline.Deadline;
 import com.amsidh.mvc.fallback.ExchangeRateProvider;
+import com.amsidh.mvc.fallback.ProviderStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
  * Service that orchestrates multiple fallback providers for exchange rates
  * Implements priority-based fallback with circuit breaker protection
+ *
+ * Modes ({@code currency-conversion.fallback.mode}):
+ * PRIORITY tries providers one by one in priority order; RANKED does the same in
+ * order of measured success rate and tail latency; RACE starts providers in ranked
+ * order, each one a hedge delay after the previous or as soon as it fails, and takes
+ * the first valid rate. Last resort providers are only asked after all others failed.
  */
 @Slf4j
 @Service
 public class FallbackOrchestrationService {
 
+    public enum Mode {
+        PRIORITY, RANKED, RACE
+    }
+
+    private static final long RANKING_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
     private final List<ExchangeRateProvider> exchangeRateProviders;
+    private final List<ExchangeRateProvider> candidates;
+    private final List<ExchangeRateProvider> lastResorts;
+    private final Map<ExchangeRateProvider, ProviderStats> stats = new IdentityHashMap<>();
+    private final Mode mode;
+    private final long hedgeDelayMillis;
+    private final long raceTimeoutMillis;
+    private final ScheduledExecutorService raceExecutor;
+
+    private volatile List<ExchangeRateProvider> ranking;
+    private volatile long rankedAt;
 
-    @Autowired
-    public FallbackOrchestrationService(List<ExchangeRateProvider> exchangeRateProviders) {
+    public FallbackOrchestrationService(List<ExchangeRateProvider> exchangeRateProviders,
+            MeterRegistry meterRegistry,
+            @Value("${currency-conversion.fallback.mode:PRIORITY}") Mode mode,
+            @Value("${currency-conversion.fallback.hedge-delay:PT0.02S}") Duration hedgeDelay,
+            @Value("${currency-conversion.fallback.race-timeout:PT2S}") Duration raceTimeout,
+            @Value("${currency-conversion.fallback.race-threads:4}") int raceThreads) {
         this.exchangeRateProviders = exchangeRateProviders.stream()
                 .sorted((p1, p2) -> Integer.compare(p1.getPriority(), p2.getPriority()))
                 .collect(Collectors.toList());
+        this.candidates = this.exchangeRateProviders.stream().filter(p -> !p.isLastResort()).toList();
+        this.lastResorts = this.exchangeRateProviders.stream().filter(ExchangeRateProvider::isLastResort).toList();
+        this.exchangeRateProviders.forEach(p -> stats.put(p, new ProviderStats(p.getProviderName(), meterRegistry)));
+        this.mode = mode;
+        this.hedgeDelayMillis = hedgeDelay.toMillis();
+        this.raceTimeoutMillis = raceTimeout.toMillis();
+        this.ranking = candidates;
+        this.rankedAt = System.nanoTime() - RANKING_REFRESH_NANOS;
+        this.raceExecutor = mode == Mode.RACE ? newRaceExecutor(raceThreads) : null;
 
-        log.info("Initialized fallback orchestration with {} providers: {}",
-                this.exchangeRateProviders.size(),
+        log.info("Initialized {} fallback orchestration with {} providers: {}",
+                mode, this.exchangeRateProviders.size(),
                 this.exchangeRateProviders.stream()
                         .map(p -> p.getProviderName() + "(priority:" + p.getPriority() + ")")
                         .collect(Collectors.joining(", ")));
     }
 
+    private static ScheduledExecutorService newRaceExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(threads, runnable -> {
+            Thread thread = new Thread(runnable, "fallback-race-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (raceExecutor != null) {
+            raceExecutor.shutdownNow();
+        }
+    }
+
     /**
-     * Get exchange rate using priority-based fallback mechanism
-     * 
+     * Get exchange rate using the configured fallback mode
+     *
      * @param fromCurrency Source currency code
      * @param toCurrency   Target currency code
      * @return Exchange rate or default 1:1 if all providers fail
@@ -43,27 +113,154 @@ public class FallbackOrchestrationService {
         log.debug("Attempting to get exchange rate for {}/{} using {} providers",
                 fromCurrency, toCurrency, exchangeRateProviders.size());
 
-        for (ExchangeRateProvider provider : exchangeRateProviders) {
-            try {
-                if (provider.isAvailable()) {
-                    BigDecimal rate = provider.getExchangeRate(fromCurrency, toCurrency);
-                    if (rate != null && rate.compareTo(BigDecimal.ZERO) > 0) {
-                        log.debug("Successfully retrieved exchange rate {} from provider {}",
-                                rate, provider.getProviderName());
-                        return rate;
+        List<ExchangeRateProvider> ordered = mode == Mode.PRIORITY ? candidates : ranked();
+        BigDecimal rate = mode == Mode.RACE
+                ? race(ordered, fromCurrency, toCurrency)
+                : firstValid(ordered, fromCurrency, toCurrency);
+        if (rate == null) {
+            rate = firstValid(lastResorts, fromCurrency, toCurrency);
+        }
+        if (rate != null) {
+            return rate;
+        }
+
+        log.error("All exchange rate providers failed for {}/{}, returning default rate",
+                fromCurrency, toCurrency);
+        return BigDecimal.ONE;
+    }
+
+    private BigDecimal firstValid(List<ExchangeRateProvider> providers, String fromCurrency, String toCurrency) {
+        for (ExchangeRateProvider provider : providers) {
+            BigDecimal rate = tryProvider(provider, fromCurrency, toCurrency);
+            if (rate != null) {
+                return rate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Start providers in order, each one a hedge delay after the previous one or as soon
+     * as the previous one fails, and return the first valid rate. Providers still running
+     * when a rate arrives finish in the background and only update their statistics.
+     */
+    private BigDecimal race(List<ExchangeRateProvider> providers, String fromCurrency, String toCurrency) {
+        if (providers.isEmpty()) {
+            return null;
+        }
+        CompletableFuture<BigDecimal> winner = new CompletableFuture<>();
+        AtomicBoolean[] started = new AtomicBoolean[providers.size()];
+        for (int i = 0; i < started.length; i++) {
+            started[i] = new AtomicBoolean();
+        }
+        AtomicInteger remaining = new AtomicInteger(providers.size());
+
+        Runnable[] launches = new Runnable[providers.size()];
+        for (int i = providers.size() - 1; i >= 0; i--) {
+            int index = i;
+            Runnable next = index + 1 < launches.length ? launches[index + 1] : () -> { };
+            launches[index] = () -> {
+                if (!started[index].compareAndSet(false, true)) {
+                    return;
+                }
+                if (winner.isDone()) {
+                    skipRemaining(started, index, remaining, winner);
+                    return;
+                }
+                try {
+                    if (index + 1 < launches.length) {
+                        raceExecutor.schedule(next, hedgeDelayMillis, TimeUnit.MILLISECONDS);
                     }
+                    raceExecutor.execute(() -> {
+                        BigDecimal rate = tryProvider(providers.get(index), fromCurrency, toCurrency);
+                        if (rate != null) {
+                            winner.complete(rate);
+                        } else {
+                            next.run(); // Hedge right away instead of waiting out the delay
+                        }
+                        if (remaining.decrementAndGet() == 0) {
+                            winner.complete(null);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    log.warn("Fallback race executor rejected provider {}", providers.get(index).getProviderName());
+                    skipRemaining(started, index, remaining, winner);
+                }
+            };
+        }
+        launches[0].run();
+
+        // Past the caller's deadline only the last resort is worth waiting for
+        Deadline deadline = Deadline.current();
+        long timeoutMillis = deadline == null ? raceTimeoutMillis : Math.min(raceTimeoutMillis, deadline.remainingMillis());
+        try {
+            return winner.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("No fallback provider answered {}/{} within {} ms", fromCurrency, toCurrency, timeoutMillis);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        } finally {
+            winner.complete(null); // Providers not started yet are skipped
+        }
+    }
+
+    /**
+     * Count this and every later provider as done without starting them
+     */
+    private static void skipRemaining(AtomicBoolean[] started, int from, AtomicInteger remaining,
+            CompletableFuture<BigDecimal> winner) {
+        int skipped = 1;
+        for (int i = from + 1; i < started.length; i++) {
+            if (started[i].compareAndSet(false, true)) {
+                skipped++;
+            }
+        }
+        if (remaining.addAndGet(-skipped) == 0) {
+            winner.complete(null);
+        }
+    }
+
+    private BigDecimal tryProvider(ExchangeRateProvider provider, String fromCurrency, String toCurrency) {
+        long start = System.nanoTime();
+        BigDecimal rate = null;
+        try {
+            if (provider.isAvailable()) {
+                rate = provider.getExchangeRate(fromCurrency, toCurrency);
+                if (rate != null && rate.compareTo(BigDecimal.ZERO) > 0) {
+                    log.debug("Successfully retrieved exchange rate {} from provider {}",
+                            rate, provider.getProviderName());
+                } else {
+                    rate = null;
                 }
+            }
+            if (rate == null) {
                 log.debug("Provider {} is not available or returned invalid rate",
                         provider.getProviderName());
-            } catch (Exception e) {
-                log.warn("Provider {} failed to provide exchange rate: {}",
-                        provider.getProviderName(), e.getMessage());
             }
+        } catch (Exception e) {
+            log.warn("Provider {} failed to provide exchange rate: {}",
+                    provider.getProviderName(), e.getMessage());
         }
+        stats.get(provider).record(System.nanoTime() - start, rate != null);
+        return rate;
+    }
 
-        log.error("All exchange rate providers failed for {}/{}, returning default rate",
-                fromCurrency, toCurrency);
-        return BigDecimal.ONE;
+    /**
+     * Providers by measured score, recomputed at most once a second; ties keep priority order
+     */
+    private List<ExchangeRateProvider> ranked() {
+        long now = System.nanoTime();
+        if (now - rankedAt >= RANKING_REFRESH_NANOS) {
+            Map<ExchangeRateProvider, Double> scores = new IdentityHashMap<>();
+            candidates.forEach(p -> scores.put(p, stats.get(p).score()));
+            ranking = candidates.stream().sorted(Comparator.comparingDouble(scores::get)).toList();
+            rankedAt = now;
+        }
+        return ranking;
     }
 
     /**
@@ -74,7 +271,9 @@ public class FallbackOrchestrationService {
                 .map(provider -> new ProviderStatus(
                         provider.getProviderName(),
                         provider.getPriority(),
-                        provider.isAvailable()))
+                        provider.isAvailable(),
+                        stats.get(provider).getSuccessRate(),
+                        stats.get(provider).getLatencyP90Millis()))
                 .collect(Collectors.toList());
     }
 
@@ -85,11 +284,16 @@ public class FallbackOrchestrationService {
         private final String name;
         private final int priority;
         private final boolean available;
+        private final double successRate;
+        private final double latencyP90Millis;
 
-        public ProviderStatus(String name, int priority, boolean available) {
+        public ProviderStatus(String name, int priority, boolean available, double successRate,
+                double latencyP90Millis) {
             this.name = name;
             this.priority = priority;
             this.available = available;
+            this.successRate = successRate;
+            this.latencyP90Millis = latencyP90Millis;
         }
 
         public String getName() {
@@ -104,10 +308,18 @@ public class FallbackOrchestrationService {
             return available;
         }
 
+        public double getSuccessRate() {
+            return successRate;
+        }
+
+        public double getLatencyP90Millis() {
+            return latencyP90Millis;
+        }
+
         @Override
         public String toString() {
-            return String.format("Provider{name='%s', priority=%d, available=%s}",
-                    name, priority, available);
+            return String.format("Provider{name='%s', priority=%d, available=%s, successRate=%.2f, p90=%.1fms}",
+                    name, priority, available, successRate, latencyP90Millis);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,13 @@
+package com.amsidh.mvc.service;
+
+import com.amsidh.mvc.dto.CurrencyConversionDto;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/**
+ * Non-blocking variant of {@link CurrencyConversionService}; no thread waits on currency-exchange
+ */
+public interface ReactiveCurrencyConversionService {
+    Mono<CurrencyConversionDto> convertCurrency(String fromCurrency, String toCurrency, BigDecimal quantity);
+}
@@ -0,0 +1,29 @@
+package com.amsidh.mvc.service;
+
+import com.amsidh.mvc.cache.LocalRateSnapshot;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface StreamingConversionService {
+
+    String TEXT_CSV_VALUE = "text/csv";
+    MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+
+    /**
+     * Content type of the result rows for a request body of the given type:
+     * CSV for CSV input, NDJSON for anything else
+     */
+    String responseContentType(MediaType contentType);
+
+    /**
+     * Convert NDJSON, JSON array or CSV rows from the input and write one result
+     * row per input row to the output, in the same format, holding one row at a time.
+     *
+     * @return number of rows read
+     */
+    long convert(InputStream body, OutputStream output, MediaType contentType, LocalRateSnapshot.Rates rates)
+            throws IOException;
+}
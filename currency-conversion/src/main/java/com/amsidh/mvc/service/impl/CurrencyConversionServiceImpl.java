@@ -1,82 +1,262 @@
 package com.amsidh.mvc.service.impl;
 
-import com.amsidh.mvc.client.CurrencyExchangeClient;
+import com.amsidh.mvc.cache.ExchangeRateNearCache;
+import com.amsidh.mvc.cache.RateFetchCoalescer;
+import com.amsidh.mvc.client.HedgedCurrencyExchangeClient;
 import com.amsidh.mvc.common.util.CommonUtils;
+import com.amsidh.mvc.dto.BatchConversionItemDto;
+import com.amsidh.mvc.dto.BatchConversionResponseDto;
+import com.amsidh.mvc.dto.BatchRateResponseDto;
+import com.amsidh.mvc.dto.ConversionRequestDto;
 import com.amsidh.mvc.dto.CurrencyConversionDto;
 import com.amsidh.mvc.dto.CurrencyExchangeDto;
+import com.amsidh.mvc.dto.CurrencyPairDto;
+import com.amsidh.mvc.resilience.CallOutcome;
+import com.amsidh.mvc.resilience.ResilienceChain;
 import com.amsidh.mvc.service.CurrencyConversionService;
 import com.amsidh.mvc.service.FallbackOrchestrationService;
-import io.github.resilience4j.bulkhead.Bulkhead;
-import io.github.resilience4j.circuitbreaker.CircuitBreaker;
-import io.github.resilience4j.ratelimiter.RateLimiter;
-import io.github.resilience4j.retry.Retry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CurrencyConversionServiceImpl implements CurrencyConversionService {
 
-    private final CurrencyExchangeClient currencyExchangeClient;
+    private final HedgedCurrencyExchangeClient hedgedCurrencyExchangeClient;
+    private final ExchangeRateNearCache exchangeRateNearCache;
+    private final RateFetchCoalescer rateFetchCoalescer;
     private final FallbackOrchestrationService fallbackOrchestrationService;
-    private final RateLimiter rateLimiter;
-    private final CircuitBreaker circuitBreaker;
-    private final Retry retry;
-    private final Bulkhead bulkhead;
+    private final ResilienceChain resilienceChain;
+    private final MeterRegistry meterRegistry;
 
     @Value("${server.port:8282}")
     private String serverPort;
 
+    @Value("${currency-conversion.batch.exchange-chunk-size:500}")
+    private int exchangeChunkSize;
+
     @Override
     public CurrencyConversionDto convertCurrency(String fromCurrency, String toCurrency,
             BigDecimal quantity) {
         log.debug("Converting currency: {} to {} with quantity {}", fromCurrency, toCurrency, quantity);
 
+        CallOutcome<CurrencyExchangeDto> outcome;
         try {
-            // Apply Resilience4j patterns programmatically
-            return rateLimiter.executeSupplier(() -> bulkhead
-                    .executeSupplier(() -> circuitBreaker.executeSupplier(() -> retry.executeSupplier(() -> {
-                        // Call currency-exchange service to get the rate
-                        CurrencyExchangeDto exchangeRate = currencyExchangeClient.getExchangeRate(fromCurrency,
-                                toCurrency);
-
-                        // Calculate total amount
-                        BigDecimal totalAmount = exchangeRate.getRate().multiply(quantity);
-
-                        log.debug("Successfully retrieved exchange rate {} from currency-exchange service",
-                                exchangeRate.getRate());
-
-                        // Build and return the conversion response
-                        return CurrencyConversionDto.builder()
-                                .fromCurrency(fromCurrency)
-                                .toCurrency(toCurrency)
-                                .quantity(quantity)
-                                .rate(exchangeRate.getRate())
-                                .totalAmount(totalAmount)
-                                .currencyExchangeServiceEnvironment(exchangeRate.getEnvironment())
-                                .currencyConversionServiceEnvironment(getServiceEnvironmentInfo())
-                                .build();
-                    }))));
-        } catch (Exception ex) {
-            // Fallback logic when all resilience patterns fail
-            return convertCurrencyFallback(fromCurrency, toCurrency, quantity, ex);
+            // Fresh cached rates are served without touching the resilience chain or the network;
+            // concurrent misses of the same pair share one outbound fetch. Each caller is held to
+            // its own client share before it starts or joins one, so one client's quota never
+            // turns away another.
+            outcome = exchangeRateNearCache.get(fromCurrency, toCurrency,
+                    () -> resilienceChain.tryAcquireClientPermission()
+                            ? rateFetchCoalescer.fetch(fromCurrency, toCurrency,
+                                    () -> fetchExchangeRate(fromCurrency, toCurrency))
+                            : CallOutcome.rejected(CallOutcome.Rejection.CLIENT_RATE_LIMIT));
+        } catch (RuntimeException ex) {
+            outcome = new CallOutcome.Failed<>(ex);
+        }
+        if (!(outcome instanceof CallOutcome.Success<CurrencyExchangeDto>(CurrencyExchangeDto exchangeRate))
+                || exchangeRate == null || exchangeRate.getRate() == null) {
+            // Fallback logic when currency-exchange could not be reached or gave no rate
+            return convertCurrencyFallback(fromCurrency, toCurrency, quantity, outcome);
         }
+
+        // Calculate total amount
+        BigDecimal totalAmount = exchangeRate.getRate().multiply(quantity);
+
+        // Build and return the conversion response
+        return CurrencyConversionDto.builder()
+                .fromCurrency(fromCurrency)
+                .toCurrency(toCurrency)
+                .quantity(quantity)
+                .rate(exchangeRate.getRate())
+                .totalAmount(totalAmount)
+                .currencyExchangeServiceEnvironment(exchangeRate.getEnvironment())
+                .currencyConversionServiceEnvironment(getServiceEnvironmentInfo())
+                .build();
+    }
+
+    @Override
+    public BatchConversionResponseDto convertCurrencies(List<ConversionRequestDto> conversions) {
+        // Distinct valid pairs, keyed in upper case so usd/INR and USD/inr share one fetch
+        Map<String, CurrencyPairDto> pairs = new LinkedHashMap<>();
+        for (ConversionRequestDto conversion : conversions) {
+            if (validate(conversion) == null) {
+                pairs.computeIfAbsent(pairKey(conversion.getFromCurrency(), conversion.getToCurrency()),
+                        key -> new CurrencyPairDto(conversion.getFromCurrency().toUpperCase(),
+                                conversion.getToCurrency().toUpperCase()));
+            }
+        }
+
+        Map<String, BigDecimal> rates = new HashMap<>(pairs.size() * 2);
+        List<CurrencyPairDto> misses = new ArrayList<>();
+        for (Map.Entry<String, CurrencyPairDto> pair : pairs.entrySet()) {
+            CurrencyExchangeDto cached = exchangeRateNearCache.getIfFresh(pair.getValue().getFromCurrency(),
+                    pair.getValue().getToCurrency());
+            if (cached != null) {
+                rates.put(pair.getKey(), cached.getRate());
+            } else {
+                misses.add(pair.getValue());
+            }
+        }
+
+        // One remote call per chunk of misses instead of one per pair
+        for (int start = 0; start < misses.size(); start += exchangeChunkSize) {
+            List<CurrencyPairDto> chunk = misses.subList(start, Math.min(start + exchangeChunkSize, misses.size()));
+            CallOutcome<BatchRateResponseDto> outcome = fetchExchangeRates(chunk);
+            if (outcome instanceof CallOutcome.Success<BatchRateResponseDto>(BatchRateResponseDto response)) {
+                for (CurrencyExchangeDto exchangeRate : response.getRates()) {
+                    exchangeRateNearCache.put(exchangeRate.getFromCurrency(), exchangeRate.getToCurrency(),
+                            exchangeRate);
+                    rates.put(pairKey(exchangeRate.getFromCurrency(), exchangeRate.getToCurrency()),
+                            exchangeRate.getRate());
+                }
+            } else {
+                log.warn("Batch rate fetch of {} pairs gave no rates, using fallback providers: {}",
+                        chunk.size(), describe(outcome));
+            }
+        }
+
+        // Pairs that were missing upstream or whose chunk failed fall back one by one
+        Set<String> fallbackPairs = new HashSet<>();
+        for (Map.Entry<String, CurrencyPairDto> pair : pairs.entrySet()) {
+            if (!rates.containsKey(pair.getKey())) {
+                rates.put(pair.getKey(), fallbackRate(pair.getValue().getFromCurrency(),
+                        pair.getValue().getToCurrency()));
+                fallbackPairs.add(pair.getKey());
+            }
+        }
+
+        List<BatchConversionItemDto> items = new ArrayList<>(conversions.size());
+        for (ConversionRequestDto conversion : conversions) {
+            String error = validate(conversion);
+            if (conversion == null) {
+                items.add(BatchConversionItemDto.builder().error(error).build());
+                continue;
+            }
+            BatchConversionItemDto.BatchConversionItemDtoBuilder item = BatchConversionItemDto.builder()
+                    .fromCurrency(conversion.getFromCurrency())
+                    .toCurrency(conversion.getToCurrency())
+                    .quantity(conversion.getQuantity());
+            if (error != null) {
+                items.add(item.error(error).build());
+                continue;
+            }
+            String key = pairKey(conversion.getFromCurrency(), conversion.getToCurrency());
+            BigDecimal rate = rates.get(key);
+            items.add(item.rate(rate)
+                    .totalAmount(rate.multiply(conversion.getQuantity()))
+                    .fallback(fallbackPairs.contains(key))
+                    .build());
+        }
+
+        log.debug("Converted {} amounts over {} distinct pairs, {} fetched, {} fell back",
+                conversions.size(), pairs.size(), misses.size(), fallbackPairs.size());
+        return BatchConversionResponseDto.builder()
+                .conversions(items)
+                .distinctPairs(pairs.size())
+                .fallbackPairs(fallbackPairs.size())
+                .currencyConversionServiceEnvironment(getServiceEnvironmentInfo())
+                .build();
     }
 
     /**
-     * Fallback method for currency conversion when all resilience patterns fail
+     * Fetch a rate from currency-exchange behind the global guards of the resilience chain.
+     * Used by the near cache for misses and background refreshes; the client share of
+     * each caller is checked before the fetch is started or joined.
+     */
+    private CallOutcome<CurrencyExchangeDto> fetchExchangeRate(String fromCurrency, String toCurrency) {
+        return resilienceChain.executeShared(() -> {
+            // Call currency-exchange service to get the rate, hedging to another replica if slow
+            CurrencyExchangeDto exchangeRate = hedgedCurrencyExchangeClient.getExchangeRate(fromCurrency,
+                    toCurrency);
+            log.debug("Successfully retrieved exchange rate {} from currency-exchange service",
+                    exchangeRate.getRate());
+            return exchangeRate;
+        });
+    }
+
+    /**
+     * Fetch many rates from currency-exchange in one call through the resilience chain
+     */
+    private CallOutcome<BatchRateResponseDto> fetchExchangeRates(List<CurrencyPairDto> pairs) {
+        return resilienceChain.execute(() -> {
+            BatchRateResponseDto response = hedgedCurrencyExchangeClient.getExchangeRates(pairs);
+            log.debug("Retrieved {} of {} exchange rates from currency-exchange service",
+                    response.getRates().size(), pairs.size());
+            return response;
+        });
+    }
+
+    /**
+     * Fallback rate for one pair of a batch; a pair whose fallback fails gets the 1:1 last resort
+     * so it cannot fail the other conversions in the batch
+     */
+    private BigDecimal fallbackRate(String fromCurrency, String toCurrency) {
+        try {
+            return fallbackOrchestrationService.getExchangeRateWithFallback(fromCurrency, toCurrency);
+        } catch (Exception e) {
+            log.error("Fallback also failed for {}/{}: {}", fromCurrency, toCurrency, e.getMessage());
+            return BigDecimal.ONE;
+        }
+    }
+
+    private static String validate(ConversionRequestDto conversion) {
+        if (conversion == null || isBlank(conversion.getFromCurrency()) || isBlank(conversion.getToCurrency())) {
+            return "fromCurrency and toCurrency are required";
+        }
+        if (conversion.getQuantity() == null) {
+            return "quantity is required";
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String pairKey(String fromCurrency, String toCurrency) {
+        return (fromCurrency + ":" + toCurrency).toUpperCase();
+    }
+
+    /**
+     * Fallback method for currency conversion when currency-exchange gave no rate
      * Uses fallback orchestration service to get exchange rates from multiple
      * providers
      */
     public CurrencyConversionDto convertCurrencyFallback(String fromCurrency, String toCurrency,
-            BigDecimal quantity, Exception ex) {
-        log.warn("Currency conversion fallback triggered for {}/{} due to: {}",
-                fromCurrency, toCurrency, ex.getMessage());
+            BigDecimal quantity, CallOutcome<CurrencyExchangeDto> outcome) {
+        switch (outcome) {
+            // Rejections are the expected answer to overload, not worth a warning each
+            case CallOutcome.Rejected<CurrencyExchangeDto>(CallOutcome.Rejection by) -> {
+                fallbackCounter(by.name().toLowerCase()).increment();
+                log.debug("Currency conversion fallback triggered for {}/{}: rejected by {}",
+                        fromCurrency, toCurrency, by);
+            }
+            case CallOutcome.Failed<CurrencyExchangeDto>(Throwable cause) -> {
+                fallbackCounter("failure").increment();
+                log.warn("Currency conversion fallback triggered for {}/{} due to: {}",
+                        fromCurrency, toCurrency, cause.getMessage());
+            }
+            case CallOutcome.Success<CurrencyExchangeDto> success -> {
+                fallbackCounter("no_rate").increment();
+                log.warn("Currency conversion fallback triggered for {}/{}: currency-exchange returned no rate",
+                        fromCurrency, toCurrency);
+            }
+        }
 
         try {
             // Use fallback orchestration service to get exchange rate
@@ -125,6 +305,21 @@ public class CurrencyConversionServiceImpl implements CurrencyConversionService
         }
     }
 
+    private Counter fallbackCounter(String cause) {
+        return Counter.builder("conversion.fallback")
+                .description("Conversions answered by the fallback providers, by why currency-exchange gave no rate")
+                .tag("cause", cause)
+                .register(meterRegistry);
+    }
+
+    private static String describe(CallOutcome<?> outcome) {
+        return switch (outcome) {
+            case CallOutcome.Rejected<?>(CallOutcome.Rejection by) -> "rejected by " + by;
+            case CallOutcome.Failed<?>(Throwable cause) -> String.valueOf(cause.getMessage());
+            case CallOutcome.Success<?> success -> "no rates";
+        };
+    }
+
     /**
      * Get service environment information including hostname and port
      * Essential for Kubernetes pod identification and debugging
@@ -0,0 +1,144 @@
+package com.amsidh.mvc.service.impl;
+
+import com.amsidh.mvc.cache.ExchangeRateNearCache;
+import com.amsidh.mvc.client.HedgedCurrencyExchangeClient;
+import com.amsidh.mvc.common.deadline.Deadline;
+import com.amsidh.mvc.common.util.CommonUtils;
+import com.amsidh.mvc.dto.CurrencyConversionDto;
+import com.amsidh.mvc.dto.CurrencyExchangeDto;
+import com.amsidh.mvc.resilience.ClientRateLimiter;
+import com.amsidh.mvc.service.FallbackOrchestrationService;
+import com.amsidh.mvc.service.ReactiveCurrencyConversionService;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.ratelimiter.operator.RateLimiterOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.retry.Retry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Reactive conversion path. Shares the rate limiter, circuit breaker, retry and near cache with the
+ * blocking path and has a bulkhead of its own; retry waits and rate limiter delays are scheduled, not slept.
+ */
+@Slf4j
+@Service
+public class ReactiveCurrencyConversionServiceImpl implements ReactiveCurrencyConversionService {
+
+    private final HedgedCurrencyExchangeClient hedgedCurrencyExchangeClient;
+    private final ExchangeRateNearCache exchangeRateNearCache;
+    private final FallbackOrchestrationService fallbackOrchestrationService;
+    private final ClientRateLimiter clientRateLimiter;
+    private final RateLimiter rateLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final Retry retry;
+    private final Bulkhead bulkhead;
+    private final Counter deadlineExpired;
+
+    @Value("${server.port:8282}")
+    private String serverPort;
+
+    public ReactiveCurrencyConversionServiceImpl(HedgedCurrencyExchangeClient hedgedCurrencyExchangeClient,
+            ExchangeRateNearCache exchangeRateNearCache, FallbackOrchestrationService fallbackOrchestrationService,
+            ClientRateLimiter clientRateLimiter, RateLimiter rateLimiter, CircuitBreaker circuitBreaker, Retry retry,
+            @Qualifier("currencyExchangeReactiveBulkhead") Bulkhead bulkhead, MeterRegistry meterRegistry) {
+        this.hedgedCurrencyExchangeClient = hedgedCurrencyExchangeClient;
+        this.exchangeRateNearCache = exchangeRateNearCache;
+        this.fallbackOrchestrationService = fallbackOrchestrationService;
+        this.clientRateLimiter = clientRateLimiter;
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.retry = retry;
+        // A zero-wait bulkhead of its own: on the blocking one, the operator would wait up to its
+        // max wait for a permit on the subscribing request thread. It holds the reactive share
+        // of the adaptive limit, so both paths together stay within the limit.
+        this.bulkhead = bulkhead;
+        this.deadlineExpired = Counter.builder(Deadline.EXPIRED_METRIC)
+                .description("Work abandoned because the caller's deadline had passed")
+                .tag("stage", "call")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<CurrencyConversionDto> convertCurrency(String fromCurrency, String toCurrency, BigDecimal quantity) {
+        CurrencyExchangeDto cached = exchangeRateNearCache.getIfFresh(fromCurrency, toCurrency);
+        Mono<CurrencyExchangeDto> exchangeRate = cached != null
+                ? Mono.just(cached)
+                : fetchExchangeRate(fromCurrency, toCurrency, clientRateLimiter.currentClient(), Deadline.current());
+
+        return exchangeRate
+                .map(rate -> CurrencyConversionDto.builder()
+                        .fromCurrency(fromCurrency)
+                        .toCurrency(toCurrency)
+                        .quantity(quantity)
+                        .rate(rate.getRate())
+                        .totalAmount(rate.getRate().multiply(quantity))
+                        .currencyExchangeServiceEnvironment(rate.getEnvironment())
+                        .currencyConversionServiceEnvironment(getServiceEnvironmentInfo())
+                        .build())
+                // A RACE fallback waits for the winning provider, so it runs off the event loop
+                .onErrorResume(ex -> Mono.fromSupplier(
+                                () -> convertCurrencyFallback(fromCurrency, toCurrency, quantity, ex))
+                        .subscribeOn(Schedulers.boundedElastic()));
+    }
+
+    /**
+     * Operators apply innermost first, giving the same order as the blocking chain:
+     * client rate limit, rate limiter, bulkhead, circuit breaker, retry, call.
+     * The client and deadline are resolved by the caller while the request is still bound to its thread;
+     * the deadline cuts the whole chain short, retries included, and travels to the WebClient in the context.
+     */
+    private Mono<CurrencyExchangeDto> fetchExchangeRate(String fromCurrency, String toCurrency, String client,
+            Deadline deadline) {
+        Mono<CurrencyExchangeDto> call = hedgedCurrencyExchangeClient
+                .getExchangeRateReactive(fromCurrency, toCurrency)
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("Empty exchange rate response")))
+                .transformDeferred(RetryOperator.of(retry))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .transformDeferred(RateLimiterOperator.of(rateLimiter));
+        Mono<CurrencyExchangeDto> fetch = Mono.fromRunnable(() -> clientRateLimiter.acquirePermission(client))
+                .then(call)
+                .doOnNext(rate -> exchangeRateNearCache.put(fromCurrency, toCurrency, rate));
+        if (deadline == null) {
+            return fetch;
+        }
+        return Mono.defer(() -> fetch.timeout(deadline.remaining()))
+                .doOnError(TimeoutException.class, e -> deadlineExpired.increment())
+                .contextWrite(Context.of(Deadline.class, deadline));
+    }
+
+    private CurrencyConversionDto convertCurrencyFallback(String fromCurrency, String toCurrency,
+            BigDecimal quantity, Throwable ex) {
+        log.warn("Reactive currency conversion fallback triggered for {}/{} due to: {}",
+                fromCurrency, toCurrency, ex.getMessage());
+
+        BigDecimal fallbackRate = fallbackOrchestrationService.getExchangeRateWithFallback(fromCurrency, toCurrency);
+        return CurrencyConversionDto.builder()
+                .fromCurrency(fromCurrency)
+                .toCurrency(toCurrency)
+                .quantity(quantity)
+                .rate(fallbackRate)
+                .totalAmount(fallbackRate.multiply(quantity))
+                .currencyExchangeServiceEnvironment("FALLBACK: Multiple providers used due to service unavailability")
+                .currencyConversionServiceEnvironment(getServiceEnvironmentInfo() + " [RESILIENCE4J-FALLBACK]")
+                .build();
+    }
+
+    private String getServiceEnvironmentInfo() {
+        return CommonUtils.getServiceEnvironmentInfo("currency-conversion-service", serverPort);
+    }
+}
@@ -0,0 +1,243 @@
+package com.amsidh.mvc.service.impl;
+
+import com.amsidh.mvc.cache.LocalRateSnapshot;
+import com.amsidh.mvc.dto.ConversionRequestDto;
+import com.amsidh.mvc.service.FallbackOrchestrationService;
+import com.amsidh.mvc.service.StreamingConversionService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streaming bulk conversion against a {@link LocalRateSnapshot}.
+ * Rows are read, converted and written one at a time with no remote call per row,
+ * so memory stays flat whatever the input size. A slow reader blocks the writes,
+ * which in turn stops reading the request: backpressure comes from the blocking streams.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StreamingConversionServiceImpl implements StreamingConversionService {
+
+    private static final String CSV_HEADER = "fromCurrency,toCurrency,quantity,rate,totalAmount,fallback,error";
+
+    private final FallbackOrchestrationService fallbackOrchestrationService;
+    private final ObjectMapper objectMapper;
+
+    // Pairs missing from the snapshot whose fallback rate is remembered for the rest of a stream
+    @Value("${currency-conversion.stream.max-fallback-pairs:1000}")
+    private int maxFallbackPairs;
+
+    @Override
+    public String responseContentType(MediaType contentType) {
+        return TEXT_CSV.isCompatibleWith(contentType) ? TEXT_CSV_VALUE + ";charset=UTF-8" : MediaType.APPLICATION_NDJSON_VALUE;
+    }
+
+    @Override
+    public long convert(InputStream body, OutputStream output, MediaType contentType, LocalRateSnapshot.Rates rates)
+            throws IOException {
+        long start = System.nanoTime();
+        RowConverter converter = new RowConverter(rates);
+        long rows = TEXT_CSV.isCompatibleWith(contentType)
+                ? convertCsv(body, output, converter)
+                : convertJson(body, output, converter);
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Stream-converted {} rows ({} fell back, {} rejected) in {} ms against rate snapshot version {}",
+                rows, converter.fallbackRows, converter.rejectedRows, durationMs, rates.version());
+        return rows;
+    }
+
+    private long convertJson(InputStream body, OutputStream output, RowConverter converter) throws IOException {
+        long rows = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(body);
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null); // Rows end with a newline instead
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+            while (token != null && token != JsonToken.END_ARRAY) {
+                rows++;
+                ConversionRequestDto row;
+                try {
+                    row = objectMapper.readValue(parser, ConversionRequestDto.class);
+                } catch (JsonProcessingException e) {
+                    // The parser cannot resynchronise after malformed input: report the row and stop
+                    converter.rejectedRows++;
+                    writeJsonError(generator, rows, "malformed row: " + e.getOriginalMessage());
+                    break;
+                }
+                converter.convert(row);
+                writeJson(generator, rows, row, converter);
+                token = parser.nextToken();
+            }
+            generator.flush();
+        }
+        return rows;
+    }
+
+    private long convertCsv(InputStream body, OutputStream output, RowConverter converter) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        long rows = 0;
+        long line = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank() || (line == 1 && text.toLowerCase().contains("quantity"))) {
+                continue;
+            }
+            rows++;
+            String[] columns = text.split(",", -1);
+            ConversionRequestDto row = new ConversionRequestDto(columns[0].trim(),
+                    columns.length > 1 ? columns[1].trim() : null,
+                    columns.length > 2 ? parseQuantity(columns[2].trim()) : null);
+            converter.convert(row);
+            writeCsv(writer, row, converter);
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private void writeJson(JsonGenerator generator, long line, ConversionRequestDto row, RowConverter converter)
+            throws IOException {
+        if (converter.error != null) {
+            writeJsonError(generator, line, converter.error);
+            return;
+        }
+        generator.writeStartObject();
+        generator.writeStringField("fromCurrency", row.getFromCurrency());
+        generator.writeStringField("toCurrency", row.getToCurrency());
+        generator.writeFieldName("quantity");
+        generator.writeNumber(row.getQuantity().toPlainString());
+        generator.writeFieldName("rate");
+        generator.writeNumber(converter.rate.toPlainString());
+        generator.writeFieldName("totalAmount");
+        generator.writeNumber(converter.totalAmount.toPlainString());
+        generator.writeBooleanField("fallback", converter.fallback);
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private void writeJsonError(JsonGenerator generator, long line, String error) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("line", line);
+        generator.writeStringField("error", error);
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private void writeCsv(Writer writer, ConversionRequestDto row, RowConverter converter) throws IOException {
+        writer.write(row.getFromCurrency() == null ? "" : row.getFromCurrency());
+        writer.write(',');
+        writer.write(row.getToCurrency() == null ? "" : row.getToCurrency());
+        writer.write(',');
+        writer.write(row.getQuantity() == null ? "" : row.getQuantity().toPlainString());
+        writer.write(',');
+        if (converter.error == null) {
+            writer.write(converter.rate.toPlainString());
+            writer.write(',');
+            writer.write(converter.totalAmount.toPlainString());
+            writer.write(',');
+            writer.write(Boolean.toString(converter.fallback));
+            writer.write(',');
+        } else {
+            writer.write(",,false,");
+            writer.write(converter.error);
+        }
+        writer.write('\n');
+    }
+
+    private BigDecimal parseQuantity(String text) {
+        try {
+            return text.isEmpty() ? null : new BigDecimal(text);
+        } catch (NumberFormatException e) {
+            return null; // Rejected by validation
+        }
+    }
+
+    /**
+     * Converts one row at a time; the result fields are overwritten for every row
+     */
+    private class RowConverter {
+        private final LocalRateSnapshot.Rates rates;
+        private final Map<String, BigDecimal> fallbackRates = new HashMap<>();
+
+        private BigDecimal rate;
+        private BigDecimal totalAmount;
+        private boolean fallback;
+        private String error;
+        private long fallbackRows;
+        private long rejectedRows;
+
+        private RowConverter(LocalRateSnapshot.Rates rates) {
+            this.rates = rates;
+        }
+
+        private void convert(ConversionRequestDto row) {
+            error = validate(row);
+            if (error != null) {
+                rejectedRows++;
+                return;
+            }
+            rate = rates.rate(row.getFromCurrency(), row.getToCurrency());
+            fallback = rate == null;
+            if (fallback) {
+                rate = fallbackRate(row.getFromCurrency(), row.getToCurrency());
+                fallbackRows++;
+            }
+            totalAmount = rate.multiply(row.getQuantity());
+        }
+
+        private BigDecimal fallbackRate(String fromCurrency, String toCurrency) {
+            String key = (fromCurrency + ":" + toCurrency).toUpperCase();
+            BigDecimal fallbackRate = fallbackRates.get(key);
+            if (fallbackRate == null) {
+                fallbackRate = fallbackOrchestrationService.getExchangeRateWithFallback(fromCurrency, toCurrency);
+                if (fallbackRates.size() < maxFallbackPairs) {
+                    fallbackRates.put(key, fallbackRate);
+                }
+            }
+            return fallbackRate;
+        }
+
+        private String validate(ConversionRequestDto row) {
+            if (row == null || isBlank(row.getFromCurrency()) || isBlank(row.getToCurrency())) {
+                return "fromCurrency and toCurrency are required";
+            }
+            if (row.getQuantity() == null) {
+                return "quantity is required";
+            }
+            return null;
+        }
+
+        private boolean isBlank(String value) {
+            return value == null || value.isBlank();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.amsidh.mvc.cache;
+
+import com.amsidh.mvc.dto.CurrencyExchangeDto;
+import com.amsidh.mvc.fallback.impl.CachedExchangeRateProvider;
+import com.amsidh.mvc.resilience.CallOutcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for ExchangeRateNearCache
+ * Verifies fresh hits, refresh-ahead, stale-while-revalidate, write-through and the size bound
+ */
+class ExchangeRateNearCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final CachedExchangeRateProvider cachedProvider = new CachedExchangeRateProvider();
+    // Refreshes run inline so their effect is visible right after the lookup
+    private final ExchangeRateNearCache cache = new ExchangeRateNearCache(cachedProvider, new SimpleMeterRegistry(),
+            Duration.ofSeconds(60), Duration.ofSeconds(45), Duration.ofSeconds(300), 100, Runnable::run, now::get);
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final Supplier<CallOutcome<CurrencyExchangeDto>> loader = () -> new CallOutcome.Success<>(
+            CurrencyExchangeDto.builder()
+                    .fromCurrency("USD")
+                    .toCurrency("INR")
+                    .rate(new BigDecimal("83.50").add(BigDecimal.valueOf(calls.incrementAndGet())))
+                    .build());
+
+    @Test
+    void testFreshHitSkipsLoader() {
+        assertEquals(new BigDecimal("84.50"), rate(cache.get("USD", "INR", loader)));
+        now.set(seconds(30));
+        assertEquals(new BigDecimal("84.50"), rate(cache.get("usd", "inr", loader)));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testRefreshAheadServesCachedAndReloads() {
+        cache.get("USD", "INR", loader);
+        now.set(seconds(50));
+        assertEquals(new BigDecimal("84.50"), rate(cache.get("USD", "INR", loader)));
+        assertEquals(2, calls.get());
+        assertEquals(new BigDecimal("85.50"), rate(cache.get("USD", "INR", loader)));
+    }
+
+    @Test
+    void testStaleServedWhenRefreshFails() {
+        cache.get("USD", "INR", loader);
+        now.set(seconds(120));
+        assertEquals(new BigDecimal("84.50"), rate(cache.get("USD", "INR",
+                () -> new CallOutcome.Failed<>(new IllegalStateException("exchange down")))));
+        assertEquals(new BigDecimal("84.50"), rate(cache.get("USD", "INR", () -> {
+            throw new IllegalStateException("exchange down");
+        })));
+
+        // Past the stale window the loader runs on the caller thread and its outcome surfaces
+        now.set(seconds(400));
+        assertInstanceOf(CallOutcome.Rejected.class, cache.get("USD", "INR",
+                () -> CallOutcome.rejected(CallOutcome.Rejection.RATE_LIMIT)));
+    }
+
+    @Test
+    void testLoadsAreWrittenThroughToCachedProvider() {
+        assertNull(cachedProvider.getExchangeRate("USD", "INR"));
+        cache.get("USD", "INR", loader);
+        assertEquals(new BigDecimal("84.50"), cachedProvider.getExchangeRate("USD", "INR"));
+    }
+
+    @Test
+    void testOldestLoadIsEvictedBeyondMaxEntries() {
+        for (int i = 0; i < 100; i++) {
+            cache.put("USD", "C" + i, dto(i));
+        }
+        // Reloading the first pair makes the second one the oldest
+        now.set(seconds(1));
+        cache.put("USD", "C0", dto(1000));
+        cache.put("USD", "EUR", dto(1001));
+
+        assertNotNull(cache.getIfFresh("USD", "C0"));
+        assertNull(cache.getIfFresh("USD", "C1"));
+        assertNotNull(cache.getIfFresh("USD", "C2"));
+        assertNotNull(cache.getIfFresh("USD", "EUR"));
+    }
+
+    private static CurrencyExchangeDto dto(int rate) {
+        return CurrencyExchangeDto.builder().rate(BigDecimal.valueOf(rate + 1)).build();
+    }
+
+    @Test
+    void testGetIfFreshIgnoresExpiredEntries() {
+        assertNull(cache.getIfFresh("USD", "INR"));
+        cache.put("usd", "inr", ((CallOutcome.Success<CurrencyExchangeDto>) loader.get()).value());
+        assertEquals(new BigDecimal("84.50"), cache.getIfFresh("USD", "INR").getRate());
+        assertEquals(new BigDecimal("84.50"), cachedProvider.getExchangeRate("USD", "INR"));
+
+        // A batch lookup reloads anything past the ttl rather than serving it stale
+        now.set(seconds(61));
+        assertNull(cache.getIfFresh("USD", "INR"));
+    }
+
+    private static BigDecimal rate(CallOutcome<CurrencyExchangeDto> outcome) {
+        return ((CallOutcome.Success<CurrencyExchangeDto>) outcome).value().getRate();
+    }
+
+    private static long seconds(long seconds) {
+        return Duration.ofSeconds(seconds).toNanos();
+    }
+}
@@ -0,0 +1,195 @@
+package com.amsidh.mvc.cache;
+
+import com.amsidh.mvc.common.deadline.Deadline;
+import com.amsidh.mvc.common.deadline.DeadlineExceededException;
+import com.amsidh.mvc.dto.CurrencyExchangeDto;
+import com.amsidh.mvc.resilience.CallOutcome;
+import com.amsidh.mvc.resilience.ClientRateLimiter;
+import com.amsidh.mvc.resilience.ResilienceChain;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.retry.Retry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for RateFetchCoalescer
+ * Verifies that concurrent fetches of a pair share one call and its outcome,
+ * while each caller keeps its own client quota and deadline
+ */
+class RateFetchCoalescerTest {
+
+    private final RateFetchCoalescer coalescer = new RateFetchCoalescer(new SimpleMeterRegistry());
+
+    @Test
+    void testConcurrentCallersShareOneFetch() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<CallOutcome<CurrencyExchangeDto>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> coalescer.fetch("USD", "INR", () -> {
+                    calls.incrementAndGet();
+                    await(release);
+                    return new CallOutcome.Success<>(CurrencyExchangeDto.builder().rate(new BigDecimal("83.50")).build());
+                })));
+            }
+            // Let every caller reach the coalescer before the leader finishes
+            while (coalescer.coalescingRatio() < 7.0 / 8) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<CallOutcome<CurrencyExchangeDto>> result : results) {
+                assertEquals(new BigDecimal("83.50"), rate(result.get(5, TimeUnit.SECONDS)));
+            }
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailureIsSharedAndFlightEnds() {
+        assertThrows(IllegalStateException.class, () -> coalescer.fetch("USD", "INR", () -> {
+            throw new IllegalStateException("exchange down");
+        }));
+        // The failed flight is not remembered
+        assertEquals(new BigDecimal("1.10"), rate(coalescer.fetch("USD", "INR",
+                () -> new CallOutcome.Success<>(CurrencyExchangeDto.builder().rate(new BigDecimal("1.10")).build()))));
+    }
+
+    @Test
+    void testClientOverQuotaDoesNotTurnAwayAnotherClient() throws Exception {
+        RateLimiter rateLimiter = RateLimiter.of("test", RateLimiterConfig.custom()
+                .limitForPeriod(2)
+                .limitRefreshPeriod(Duration.ofSeconds(10))
+                .timeoutDuration(Duration.ZERO)
+                .build());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ResilienceChain chain = new ResilienceChain(
+                new ClientRateLimiter(rateLimiter, meterRegistry, true, "X-API-Key", 10,
+                        Duration.ofMinutes(5), Duration.ofSeconds(10)),
+                RateLimiter.ofDefaults("global"), Bulkhead.ofDefaults("test"), CircuitBreaker.ofDefaults("test"),
+                Retry.ofDefaults("test"));
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<CallOutcome<CurrencyExchangeDto>> fetcher = () -> chain.executeShared(() -> {
+            calls.incrementAndGet();
+            started.countDown();
+            await(release);
+            return CurrencyExchangeDto.builder().rate(new BigDecimal("83.50")).build();
+        });
+        // Client "a" uses up its share before asking for the pair
+        useUpShare(chain, "a");
+
+        // Over quota, "a" never leads a flight, so "b" leads its own and gets the rate
+        CallOutcome<CurrencyExchangeDto> rejected = asClient("a", () -> fetch(chain, fetcher));
+        assertEquals(CallOutcome.rejected(CallOutcome.Rejection.CLIENT_RATE_LIMIT), rejected);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<CallOutcome<CurrencyExchangeDto>> leader = executor.submit(() -> asClient("b", () -> fetch(chain, fetcher)));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // Nor does "a" ride along on the flight "b" leads; a second active client
+            // changes the shares, so use up what "a" has now
+            useUpShare(chain, "a");
+            assertSame(rejected, asClient("a", () -> fetch(chain, fetcher)));
+            release.countDown();
+            assertEquals(new BigDecimal("83.50"), rate(leader.get(5, TimeUnit.SECONDS)));
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFollowerGivesUpAtItsOwnDeadline() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<CallOutcome<CurrencyExchangeDto>> leader = executor.submit(() -> coalescer.fetch("USD", "INR", () -> {
+                started.countDown();
+                await(release);
+                return new CallOutcome.Success<>(CurrencyExchangeDto.builder().rate(new BigDecimal("83.50")).build());
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Deadline.bind(Deadline.after(Duration.ofMillis(50)));
+            try {
+                assertThrows(DeadlineExceededException.class, () -> coalescer.fetch("USD", "INR", () -> {
+                    throw new AssertionError("a follower does not fetch");
+                }));
+            } finally {
+                Deadline.clear();
+            }
+            // The leader is not cut short by the follower's deadline
+            release.countDown();
+            assertEquals(new BigDecimal("83.50"), rate(leader.get(5, TimeUnit.SECONDS)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Mirrors the near cache loader: the caller's own share first, then the shared flight
+    private CallOutcome<CurrencyExchangeDto> fetch(ResilienceChain chain,
+            Supplier<CallOutcome<CurrencyExchangeDto>> fetcher) {
+        return chain.tryAcquireClientPermission()
+                ? coalescer.fetch("USD", "INR", fetcher)
+                : CallOutcome.rejected(CallOutcome.Rejection.CLIENT_RATE_LIMIT);
+    }
+
+    private static void useUpShare(ResilienceChain chain, String apiKey) {
+        asClient(apiKey, () -> {
+            while (chain.tryAcquireClientPermission()) {
+                // keep taking tokens until the bucket is empty
+            }
+            return null;
+        });
+    }
+
+    private static <T> T asClient(String apiKey, Supplier<T> work) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-API-Key", apiKey);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            return work.get();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private static BigDecimal rate(CallOutcome<CurrencyExchangeDto> outcome) {
+        return ((CallOutcome.Success<CurrencyExchangeDto>) outcome).value().getRate();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.amsidh.mvc.client;
+
+import com.amsidh.mvc.client.CurrencyExchangeReplicas.Replica;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for CurrencyExchangeReplicas
+ * Verifies power of two choices on latency and calls in flight, pair affinity and outlier ejection
+ */
+class CurrencyExchangeReplicasTest {
+
+    private static final String A = "http://a:8181";
+    private static final String B = "http://b:8181";
+    private static final String C = "http://c:8181";
+
+    private final AtomicLong clock = new AtomicLong(1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testSlowReplicaLosesToFastOne() {
+        CurrencyExchangeReplicas replicas = replicas(A, B);
+        Replica a = find(replicas, A);
+        Replica b = find(replicas, B);
+        succeed(replicas, a, 100);
+        succeed(replicas, b, 10);
+
+        for (int i = 0; i < 50; i++) {
+            assertSame(b, replicas.pick());
+        }
+    }
+
+    @Test
+    void testFailingReplicaLosesToHealthyOne() {
+        CurrencyExchangeReplicas replicas = replicas(A, B);
+        Replica a = find(replicas, A);
+        succeed(replicas, find(replicas, B), 50);
+        fail(replicas, a); // Fails fast, but must not look fast
+
+        assertFalse(pickMany(replicas).contains(a));
+    }
+
+    @Test
+    void testBusyReplicaIsAvoided() {
+        CurrencyExchangeReplicas replicas = replicas(A, B);
+        Replica a = find(replicas, A);
+        Replica b = find(replicas, B);
+        succeed(replicas, a, 10);
+        succeed(replicas, b, 15);
+        assertSame(a, replicas.pick());
+
+        // A replica stuck in a pause keeps its calls in flight
+        Disposable stuck = replicas.call(a, Mono.never()).subscribe();
+        assertSame(b, replicas.pick());
+
+        stuck.dispose();
+        assertSame(a, replicas.pick());
+    }
+
+    @Test
+    void testFailingReplicaIsEjectedAndReturns() {
+        CurrencyExchangeReplicas replicas = replicas(A, B, C);
+        Replica a = find(replicas, A);
+        Replica b = find(replicas, B);
+        for (int i = 0; i < 3; i++) {
+            fail(replicas, a);
+            fail(replicas, b);
+        }
+        assertEquals(1, meterRegistry.get("load_balancer.ejections").counter().count());
+
+        // Only one of three replicas may be out at a time, so B stays in rotation
+        assertEquals(1, meterRegistry.get("load_balancer.ejected").tag("replica", A).gauge().value());
+        assertEquals(0, meterRegistry.get("load_balancer.ejected").tag("replica", B).gauge().value());
+        assertFalse(pickMany(replicas).contains(a));
+
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertTrue(pickMany(replicas).contains(a));
+    }
+
+    @Test
+    void testPairAffinityKeepsPairOnItsOwner() {
+        CurrencyExchangeReplicas replicas = replicas(CurrencyExchangeReplicas.Strategy.PAIR_AFFINITY, A, B, C);
+        Replica owner = replicas.pick("USD", "INR");
+        for (int i = 0; i < 20; i++) {
+            assertSame(owner, replicas.pick("usd", "inr"));
+        }
+        Replica secondary = replicas.pickOther(owner, "USD", "INR");
+        assertNotSame(owner, secondary);
+
+        // While the owner is ejected its pairs go to the next replica on the ring, then come back
+        for (int i = 0; i < 3; i++) {
+            fail(replicas, owner);
+        }
+        assertSame(secondary, replicas.pick("USD", "INR"));
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertSame(owner, replicas.pick("USD", "INR"));
+    }
+
+    private CurrencyExchangeReplicas replicas(String... urls) {
+        return replicas(CurrencyExchangeReplicas.Strategy.P2C, urls);
+    }
+
+    private CurrencyExchangeReplicas replicas(CurrencyExchangeReplicas.Strategy strategy, String... urls) {
+        return new CurrencyExchangeReplicas(List.of(urls), A, meterRegistry, Duration.ofSeconds(10), 3,
+                Duration.ofSeconds(30), 50, strategy, 100, clock::get);
+    }
+
+    private static Replica find(CurrencyExchangeReplicas replicas, String url) {
+        for (int i = 0; i < 100; i++) {
+            Replica replica = replicas.pick();
+            if (!replica.uri().toString().equals(url)) {
+                replica = replicas.pickOther(replica);
+            }
+            if (replica.uri().toString().equals(url)) {
+                return replica;
+            }
+        }
+        throw new AssertionError("never picked " + url);
+    }
+
+    private void succeed(CurrencyExchangeReplicas replicas, Replica replica, long millis) {
+        replicas.call(replica, uri -> clock.addAndGet(Duration.ofMillis(millis).toNanos()));
+    }
+
+    private static void fail(CurrencyExchangeReplicas replicas, Replica replica) {
+        assertThrows(IllegalStateException.class, () -> replicas.call(replica, uri -> {
+            throw new IllegalStateException("connection refused");
+        }));
+    }
+
+    private static Set<Replica> pickMany(CurrencyExchangeReplicas replicas) {
+        Set<Replica> picked = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            picked.add(replicas.pick());
+        }
+        return picked;
+    }
+}
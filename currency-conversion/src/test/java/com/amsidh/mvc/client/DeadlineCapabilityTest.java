@@ -0,0 +1,72 @@
+package com.amsidh.mvc.client;
+
+import com.amsidh.mvc.common.deadline.Deadline;
+import com.amsidh.mvc.common.deadline.DeadlineExceededException;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for DeadlineCapability
+ * Verifies that calls carry the remaining time and are not sent once the deadline has passed
+ */
+class DeadlineCapabilityTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicReference<Request> sent = new AtomicReference<>();
+    private final AtomicReference<Request.Options> sentOptions = new AtomicReference<>();
+    private final Client recording = (request, options) -> {
+        sent.set(request);
+        sentOptions.set(options);
+        return Response.builder().status(200).request(request).headers(Map.of()).build();
+    };
+    private final Client client = new DeadlineCapability(meterRegistry).enrich(recording);
+    private final Request.Options options = new Request.Options(10, TimeUnit.SECONDS, 10, TimeUnit.SECONDS, true);
+
+    @AfterEach
+    void tearDown() {
+        Deadline.clear();
+    }
+
+    @Test
+    void testRemainingTimeIsSentAndCapsTimeouts() throws Exception {
+        Deadline.bind(Deadline.after(Duration.ofMillis(800)));
+        client.execute(request(), options);
+
+        long header = Long.parseLong(sent.get().headers().get(Deadline.HEADER).iterator().next());
+        assertTrue(header > 500 && header <= 800);
+        assertTrue(sentOptions.get().readTimeoutUnit().toMillis(sentOptions.get().readTimeout()) <= 800);
+    }
+
+    @Test
+    void testExpiredCallIsNotSent() {
+        Deadline.bind(Deadline.after(Duration.ZERO));
+
+        assertThrows(DeadlineExceededException.class, () -> client.execute(request(), options));
+        assertNull(sent.get());
+        assertEquals(1, meterRegistry.get(Deadline.EXPIRED_METRIC).tag("stage", "call").counter().count());
+    }
+
+    @Test
+    void testNoDeadlineLeavesCallAlone() throws Exception {
+        client.execute(request(), options);
+        assertNull(sent.get().headers().get(Deadline.HEADER));
+        assertSame(options, sentOptions.get());
+    }
+
+    private static Request request() {
+        return Request.create(Request.HttpMethod.GET, "http://localhost:8181/currencyexchange/USD/to/INR/rate",
+                Map.of(), null, StandardCharsets.UTF_8, null);
+    }
+}
@@ -0,0 +1,129 @@
+package com.amsidh.mvc.client;
+
+import com.amsidh.mvc.dto.BatchRateResponseDto;
+import com.amsidh.mvc.dto.CurrencyExchangeDto;
+import com.amsidh.mvc.dto.CurrencyPairDto;
+import com.amsidh.mvc.dto.RateSnapshotDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for HedgedCurrencyExchangeClient
+ * Verifies that a slow replica is hedged, the loser is cancelled, hedges stay within budget
+ * and calls without hedging are still balanced
+ */
+class HedgedCurrencyExchangeClientTest {
+
+    private static final String SLOW = "http://slow:8181";
+    private static final String FAST = "http://fast:8181";
+
+    private final CountDownLatch slowCancelled = new CountDownLatch(1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HedgedCurrencyExchangeClient client;
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+    }
+
+    @Test
+    void testSlowReplicaIsHedgedAndCancelled() throws InterruptedException {
+        // Neither replica is measured yet, so the one listed first gets the first attempt
+        client = client(List.of(SLOW, FAST), Map.of(SLOW, 2000L, FAST, 0L), true, 100);
+
+        long start = System.nanoTime();
+        CurrencyExchangeDto rate = client.getExchangeRate("USD", "INR");
+
+        assertEquals(FAST, rate.getEnvironment());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1000);
+        assertTrue(slowCancelled.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testHedgesStopWhenBudgetIsSpent() {
+        client = client(List.of(SLOW, FAST), Map.of(SLOW, 200L, FAST, 200L), true, 1);
+        client.getExchangeRate("USD", "INR");
+        client.getExchangeRate("USD", "INR");
+
+        // One hedge to start with and 1% of two calls earned: the second call is not hedged
+        assertEquals(1, meterRegistry.get("hedging.hedges").tag("result", "sent").counter().count());
+        assertEquals(1, meterRegistry.get("hedging.budget.exhausted").counter().count());
+    }
+
+    @Test
+    void testDisabledHedgingStillBalancesAcrossReplicas() {
+        client = client(List.of(SLOW, FAST), Map.of(SLOW, 0L, FAST, 0L), false, 100);
+        assertTrue(client.getExchangeRate("USD", "INR").getEnvironment().startsWith("http://"));
+        assertEquals(0, meterRegistry.get("hedging.hedges").tag("result", "sent").counter().count());
+    }
+
+    @Test
+    void testSingleReplicaUsesServiceUrl() {
+        client = client(List.of(), Map.of(), true, 100);
+        assertEquals("service-url", client.getExchangeRate("USD", "INR").getEnvironment());
+    }
+
+    private HedgedCurrencyExchangeClient client(List<String> replicaUrls, Map<String, Long> delays,
+            boolean enabled, double budgetPercent) {
+        CurrencyExchangeReplicas replicas = new CurrencyExchangeReplicas(replicaUrls, FAST, meterRegistry,
+                Duration.ofSeconds(10), 5, Duration.ofSeconds(30), 50, CurrencyExchangeReplicas.Strategy.P2C, 100,
+                System::nanoTime);
+        return new HedgedCurrencyExchangeClient(new StubClient(delays), null, replicas, meterRegistry,
+                enabled, 0.95, Duration.ofMillis(10), Duration.ofMillis(50), budgetPercent);
+    }
+
+    private class StubClient implements CurrencyExchangeClient {
+        private final Map<String, Long> delays;
+
+        StubClient(Map<String, Long> delays) {
+            this.delays = delays;
+        }
+
+        @Override
+        public CurrencyExchangeDto getExchangeRate(String fromCurrency, String toCurrency) {
+            return rate("service-url");
+        }
+
+        @Override
+        public CurrencyExchangeDto getExchangeRate(URI replica, String fromCurrency, String toCurrency) {
+            try {
+                Thread.sleep(delays.get(replica.toString()));
+            } catch (InterruptedException e) {
+                slowCancelled.countDown();
+                throw new IllegalStateException("cancelled");
+            }
+            return rate(replica.toString());
+        }
+
+        private CurrencyExchangeDto rate(String environment) {
+            return CurrencyExchangeDto.builder().rate(new BigDecimal("83.5")).environment(environment).build();
+        }
+
+        @Override
+        public BatchRateResponseDto getExchangeRates(List<CurrencyPairDto> pairs) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public BatchRateResponseDto getExchangeRates(URI replica, List<CurrencyPairDto> pairs) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResponseEntity<RateSnapshotDto> getSnapshot(String etag) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
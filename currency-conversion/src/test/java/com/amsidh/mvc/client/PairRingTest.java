@@ -0,0 +1,55 @@
+package com.amsidh.mvc.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for PairRing
+ * Verifies an even spread of pairs and that membership changes only move the affected pairs
+ */
+class PairRingTest {
+
+    private static final List<String> MEMBERS = List.of("http://a:8181", "http://b:8181", "http://c:8181",
+            "http://d:8181");
+
+    @Test
+    void testPairsSpreadEvenly() {
+        PairRing<String> ring = new PairRing<>(MEMBERS, Function.identity(), 100);
+        Map<String, Integer> owned = new HashMap<>();
+        for (int i = 0; i < 10000; i++) {
+            owned.merge(ring.owner("P" + i + ":INR", member -> true), 1, Integer::sum);
+        }
+
+        assertEquals(4, owned.size());
+        owned.values().forEach(count -> assertTrue(count > 1500 && count < 3500, owned.toString()));
+    }
+
+    @Test
+    void testRemovingMemberOnlyMovesItsPairs() {
+        PairRing<String> before = new PairRing<>(MEMBERS, Function.identity(), 100);
+        PairRing<String> after = new PairRing<>(MEMBERS.subList(0, 3), Function.identity(), 100);
+        String removed = MEMBERS.get(3);
+
+        for (int i = 0; i < 2000; i++) {
+            String key = PairRing.key("P" + i, "inr");
+            String owner = before.owner(key, member -> true);
+            if (!owner.equals(removed)) {
+                assertEquals(owner, after.owner(key, member -> true));
+            }
+            // Skipping a member at lookup gives the same owners as leaving it out of the ring
+            assertEquals(after.owner(key, member -> true), before.owner(key, member -> !member.equals(removed)));
+        }
+    }
+
+    @Test
+    void testNoEligibleMember() {
+        PairRing<String> ring = new PairRing<>(MEMBERS, Function.identity(), 10);
+        assertNull(ring.owner(PairRing.key("USD", "INR"), member -> false));
+    }
+}
@@ -0,0 +1,42 @@
+package com.amsidh.mvc.config;
+
+import com.amsidh.mvc.common.deadline.Deadline;
+import io.github.resilience4j.retry.Retry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for Resilience4jConfig
+ * Verifies that retries stop where the request's deadline leaves no time for them
+ */
+class Resilience4jConfigTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Retry retry = new Resilience4jConfig().currencyExchangeRetry(meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        Deadline.clear();
+    }
+
+    @Test
+    void testNoRetryStartsAfterDeadline() {
+        AtomicInteger attempts = new AtomicInteger();
+        Deadline.bind(Deadline.after(Duration.ofMillis(1500)));
+
+        assertThrows(IllegalStateException.class, () -> retry.executeSupplier(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("currency-exchange unavailable");
+        }));
+
+        // The first retry fits in the budget after its 1s wait, the second would not
+        assertEquals(2, attempts.get());
+        assertEquals(1, meterRegistry.get(Deadline.EXPIRED_METRIC).tag("stage", "retry").counter().count());
+    }
+}
@@ -0,0 +1,184 @@
+package com.amsidh.mvc.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for AdaptiveConcurrencyLimiter
+ * Verifies that the bulkhead limit follows observed latency and failures, and that the
+ * blocking and reactive bulkheads share it
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private final Bulkhead bulkhead = bulkhead("test", 8);
+    private final Bulkhead reactive = bulkhead("reactive", 2);
+    private final CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("test");
+    // Limits are applied inline so their effect is visible right after the sample
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(bulkhead, reactive,
+            circuitBreaker, new SimpleMeterRegistry(), 2, 20, 0.5, 2.0, Duration.ofSeconds(3), 0.25, Runnable::run);
+
+    @Test
+    void testLimitGrowsOnlyWhilePermitsAreInUse() {
+        fastCalls(5);
+        assertEquals(10, limiter.getLimit());
+
+        holdPermits(7);
+        fastCalls(3);
+        assertEquals(13, limiter.getLimit());
+        assertEquals(10, bulkhead.getMetrics().getMaxAllowedConcurrentCalls());
+        assertEquals(3, reactive.getMetrics().getMaxAllowedConcurrentCalls());
+    }
+
+    @Test
+    void testLimitShrinksOnSlowAndFailedCalls() {
+        fastCalls(20);
+        limiter.onSample(Duration.ofMillis(500), false); // Recent latency far above the 10ms baseline
+        assertEquals(5, limiter.getLimit());
+
+        limiter.onSample(Duration.ofMillis(10), true);
+        assertEquals(2, limiter.getLimit());
+        limiter.onSample(Duration.ofSeconds(4), false);
+        assertEquals(2, limiter.getLimit());
+        assertEquals(1, bulkhead.getMetrics().getMaxAllowedConcurrentCalls());
+        assertEquals(1, reactive.getMetrics().getMaxAllowedConcurrentCalls());
+    }
+
+    @Test
+    void testCircuitBreakerCallsAreSamples() {
+        holdPermits(4);
+        assertTrue(reactive.tryAcquirePermission());
+        circuitBreaker.executeSupplier(() -> "rate");
+        assertEquals(11, limiter.getLimit());
+
+        assertThrows(IllegalStateException.class, () -> circuitBreaker.executeSupplier(() -> {
+            throw new IllegalStateException("upstream down");
+        }));
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void testShrinkingAFullBulkheadDoesNotBlockCallers() throws Exception {
+        Bulkhead full = bulkhead("full", 8);
+        Bulkhead fullReactive = bulkhead("full-reactive", 2);
+        ExecutorService applier = Executors.newSingleThreadExecutor();
+        AdaptiveConcurrencyLimiter shrinking = new AdaptiveConcurrencyLimiter(full, fullReactive,
+                circuitBreaker, new SimpleMeterRegistry(), 2, 20, 0.5, 2.0, Duration.ofSeconds(3), 0.25, applier);
+        try {
+            for (int i = 0; i < 8; i++) {
+                assertTrue(full.tryAcquirePermission());
+            }
+
+            // Each permit holder reports its failed call before giving its permit back
+            CompletableFuture<Void> callers = CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 8; i++) {
+                    shrinking.onSample(Duration.ofMillis(10), true);
+                    full.onComplete();
+                }
+            });
+            callers.get(5, TimeUnit.SECONDS);
+            assertEquals(2, shrinking.getLimit());
+
+            applier.shutdown();
+            assertTrue(applier.awaitTermination(5, TimeUnit.SECONDS));
+            assertEquals(1, full.getMetrics().getMaxAllowedConcurrentCalls());
+            assertEquals(1, fullReactive.getMetrics().getMaxAllowedConcurrentCalls());
+        } finally {
+            applier.shutdownNow();
+        }
+    }
+
+    @Test
+    void testPermitsInUseOnBothPathsCountTowardsTheLimit() {
+        holdPermits(3);
+        assertTrue(reactive.tryAcquirePermission());
+        assertTrue(reactive.tryAcquirePermission());
+
+        // Half of the limit is in use only when both bulkheads are counted
+        fastCalls(1);
+        assertEquals(11, limiter.getLimit());
+    }
+
+    @Test
+    void testBlockingAndReactiveCallsTogetherStayWithinTheLimit() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<String> call = () -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                release.await(5, TimeUnit.SECONDS);
+                return "rate";
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        };
+
+        ExecutorService callers = Executors.newFixedThreadPool(20);
+        try {
+            for (int i = 0; i < 20; i++) {
+                callers.execute(() -> {
+                    try {
+                        bulkhead.executeCallable(call);
+                    } catch (BulkheadFullException e) {
+                        rejected.incrementAndGet();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                Mono.fromCallable(call)
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .transformDeferred(BulkheadOperator.of(reactive))
+                        .subscribe(rate -> { }, e -> rejected.incrementAndGet());
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (inFlight.get() + rejected.get() < 40 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(limiter.getLimit(), inFlight.get());
+            assertEquals(40 - limiter.getLimit(), rejected.get());
+            assertEquals(limiter.getLimit(), limiter.inFlight());
+        } finally {
+            release.countDown();
+            callers.shutdown();
+            assertTrue(callers.awaitTermination(5, TimeUnit.SECONDS));
+        }
+        assertTrue(maxInFlight.get() <= limiter.getLimit());
+    }
+
+    private static Bulkhead bulkhead(String name, int permits) {
+        return Bulkhead.of(name,
+                BulkheadConfig.custom().maxConcurrentCalls(permits).maxWaitDuration(Duration.ZERO).build());
+    }
+
+    private void fastCalls(int count) {
+        for (int i = 0; i < count; i++) {
+            limiter.onSample(Duration.ofMillis(10), false);
+        }
+    }
+
+    private void holdPermits(int count) {
+        for (int i = 0; i < count; i++) {
+            assertTrue(bulkhead.tryAcquirePermission());
+        }
+    }
+}
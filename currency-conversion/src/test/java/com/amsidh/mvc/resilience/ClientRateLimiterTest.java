@@ -0,0 +1,85 @@
+package com.amsidh.mvc.resilience;
+
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for ClientRateLimiter
+ * Verifies per-client token buckets, fair sharing of the global rate and bounded state
+ */
+class ClientRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final ClientRateLimiter limiter = new ClientRateLimiter(RateLimiterConfig.custom()
+            .limitForPeriod(2)
+            .limitRefreshPeriod(Duration.ofSeconds(10))
+            .build(), new SimpleMeterRegistry(), true, "X-API-Key", 2, Duration.ofMinutes(5), Duration.ofSeconds(30),
+            clock::get);
+
+    @Test
+    void testBusyClientDoesNotUseUpOtherClients() {
+        assertTrue(limiter.tryAcquire("ip:10.0.0.1"));
+        assertTrue(limiter.tryAcquire("ip:10.0.0.1"));
+        assertFalse(limiter.tryAcquire("ip:10.0.0.1"));
+        assertThrows(ClientRateLimitExceededException.class, () -> limiter.acquirePermission("ip:10.0.0.1"));
+
+        assertTrue(limiter.tryAcquire("key:partner"));
+        // No request context means a background call: only the global limit applies
+        assertTrue(limiter.tryAcquire(null));
+    }
+
+    @Test
+    void testActiveClientsShareTheGlobalRate() {
+        limiter.tryAcquire("ip:10.0.0.2");
+        assertTrue(limiter.tryAcquire("ip:10.0.0.1"));
+        assertTrue(limiter.tryAcquire("ip:10.0.0.1"));
+        assertFalse(limiter.tryAcquire("ip:10.0.0.1"));
+
+        // Alone, a client earns a call every 5s; with two active clients, every 10s
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertFalse(limiter.tryAcquire("ip:10.0.0.1"));
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertTrue(limiter.tryAcquire("ip:10.0.0.1"));
+    }
+
+    @Test
+    void testIdleClientsStopTakingAShare() {
+        limiter.tryAcquire("ip:10.0.0.1");
+        limiter.tryAcquire("ip:10.0.0.2");
+        assertEquals(2, limiter.activeClients());
+
+        // Neither called within the window; the one that comes back has the whole rate again
+        clock.addAndGet(Duration.ofSeconds(40).toNanos());
+        limiter.refreshActiveClients();
+        assertEquals(0, limiter.activeClients());
+        assertTrue(limiter.tryAcquire("ip:10.0.0.1"));
+        assertTrue(limiter.tryAcquire("ip:10.0.0.1"));
+        assertFalse(limiter.tryAcquire("ip:10.0.0.1"));
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertTrue(limiter.tryAcquire("ip:10.0.0.1"));
+        assertEquals(1, limiter.activeClients());
+
+        // Calling again brings a client back into the count straight away
+        limiter.tryAcquire("ip:10.0.0.2");
+        assertEquals(2, limiter.activeClients());
+    }
+
+    @Test
+    void testClientStateIsBoundedAndIdleBucketsAreEvicted() {
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("ip:10.0.0." + i);
+        }
+        // Two clients plus the shared overflow bucket
+        assertEquals(3, limiter.clients());
+
+        clock.addAndGet(Duration.ofMinutes(6).toNanos());
+        limiter.evictIdleBuckets();
+        assertEquals(0, limiter.clients());
+    }
+}
@@ -0,0 +1,81 @@
+package com.amsidh.mvc.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for ResilienceChain
+ * Verifies that each guard's rejection and the call's failure come back as outcomes
+ */
+class ResilienceChainTest {
+
+    private final RateLimiterConfig rateLimiterConfig = RateLimiterConfig.custom()
+            .limitForPeriod(2)
+            .limitRefreshPeriod(Duration.ofSeconds(10))
+            .timeoutDuration(Duration.ZERO)
+            .build();
+    private final RateLimiter rateLimiter = RateLimiter.of("test", rateLimiterConfig);
+    private final Bulkhead bulkhead = Bulkhead.of("test", BulkheadConfig.custom()
+            .maxConcurrentCalls(1)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+    private final CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("test");
+    private final ResilienceChain chain = new ResilienceChain(
+            new ClientRateLimiter(rateLimiterConfig, new SimpleMeterRegistry(), true, "X-API-Key", 10,
+                    Duration.ofMinutes(5), Duration.ofSeconds(10), System::nanoTime),
+            rateLimiter, bulkhead, circuitBreaker, Retry.of("test", RetryConfig.custom().maxAttempts(1).build()));
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void testRejectionsAreOutcomesAndSkipTheCall() {
+        assertEquals(new CallOutcome.Success<>(1), chain.execute(calls::incrementAndGet));
+        assertEquals(new CallOutcome.Success<>(2), chain.execute(calls::incrementAndGet));
+
+        CallOutcome<Integer> rejected = chain.execute(calls::incrementAndGet);
+        assertEquals(new CallOutcome.Rejected<>(CallOutcome.Rejection.RATE_LIMIT), rejected);
+        // The same instance every time, so rejecting allocates nothing
+        assertSame(rejected, chain.execute(calls::incrementAndGet));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testOpenCircuitAndFullBulkheadAreRejections() {
+        circuitBreaker.transitionToOpenState();
+        assertEquals(new CallOutcome.Rejected<>(CallOutcome.Rejection.CIRCUIT_OPEN),
+                chain.execute(calls::incrementAndGet));
+        // The bulkhead permit taken before the circuit breaker said no is given back
+        assertEquals(1, bulkhead.getMetrics().getAvailableConcurrentCalls());
+
+        circuitBreaker.transitionToClosedState();
+        assertTrue(bulkhead.tryAcquirePermission());
+        assertEquals(new CallOutcome.Rejected<>(CallOutcome.Rejection.BULKHEAD), chain.execute(calls::incrementAndGet));
+        bulkhead.onComplete();
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void testFailureIsRecordedAndReturned() {
+        IllegalStateException down = new IllegalStateException("exchange down");
+
+        CallOutcome<Integer> outcome = chain.execute(() -> {
+            throw down;
+        });
+
+        assertEquals(new CallOutcome.Failed<>(down), outcome);
+        assertEquals(1, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+        assertEquals(1, bulkhead.getMetrics().getAvailableConcurrentCalls());
+    }
+}
@@ -0,0 +1,136 @@
+package com.amsidh.mvc.service;
+
+import com.amsidh.mvc.fallback.ExchangeRateProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for FallbackOrchestrationService
+ * Verifies racing, hedging on failure, last resort handling and ranking by measurements
+ */
+class FallbackOrchestrationServiceTest {
+
+    private FallbackOrchestrationService service;
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void testRaceIsBoundedByTheFastestProvider() {
+        service = service(FallbackOrchestrationService.Mode.RACE,
+                provider("SLOW", 1, 1000, "83.10"), provider("FAST", 2, 0, "83.50"), lastResort());
+
+        long start = System.nanoTime();
+        BigDecimal rate = service.getExchangeRateWithFallback("USD", "INR");
+
+        assertEquals(new BigDecimal("83.50"), rate);
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 500);
+    }
+
+    @Test
+    void testRaceHedgesAtOnceOnFailureAndKeepsLastResortOut() {
+        service = service(FallbackOrchestrationService.Mode.RACE,
+                provider("EMPTY", 1, 0, null), provider("LATE", 2, 100, "0.85"), lastResort());
+
+        assertEquals(new BigDecimal("0.85"), service.getExchangeRateWithFallback("USD", "EUR"));
+    }
+
+    @Test
+    void testRaceFallsBackToLastResortWhenAllFail() {
+        service = service(FallbackOrchestrationService.Mode.RACE,
+                provider("EMPTY", 1, 0, null), provider("BROKEN", 2, 0, "-1"), lastResort());
+
+        assertEquals(new BigDecimal("0.5"), service.getExchangeRateWithFallback("USD", "EUR"));
+    }
+
+    @Test
+    void testRankedModeMovesFailingProviderBack() throws InterruptedException {
+        AtomicInteger missCalls = new AtomicInteger();
+        ExchangeRateProvider missing = new TestProvider("MISSING", 1, 0, null) {
+            @Override
+            public BigDecimal getExchangeRate(String fromCurrency, String toCurrency) {
+                missCalls.incrementAndGet();
+                return null;
+            }
+        };
+        service = service(FallbackOrchestrationService.Mode.RANKED, missing, provider("STATIC", 2, 0, "0.75"));
+        for (int i = 0; i < 20; i++) {
+            service.getExchangeRateWithFallback("USD", "GBP");
+        }
+        assertEquals(20, missCalls.get());
+
+        Thread.sleep(1100); // Ranking is recomputed at most once a second
+        service.getExchangeRateWithFallback("USD", "GBP");
+        service.getExchangeRateWithFallback("USD", "GBP");
+        assertEquals(20, missCalls.get());
+        assertTrue(service.getProviderStatuses().get(0).getSuccessRate() < 0.2);
+    }
+
+    private static FallbackOrchestrationService service(FallbackOrchestrationService.Mode mode,
+            ExchangeRateProvider... providers) {
+        return new FallbackOrchestrationService(List.of(providers), new SimpleMeterRegistry(), mode,
+                Duration.ofMillis(20), Duration.ofSeconds(2), 4);
+    }
+
+    private static ExchangeRateProvider provider(String name, int priority, long delayMillis, String rate) {
+        return new TestProvider(name, priority, delayMillis, rate);
+    }
+
+    private static ExchangeRateProvider lastResort() {
+        return new TestProvider("DEFAULT", 3, 0, "0.5") {
+            @Override
+            public boolean isLastResort() {
+                return true;
+            }
+        };
+    }
+
+    private static class TestProvider implements ExchangeRateProvider {
+        private final String name;
+        private final int priority;
+        private final long delayMillis;
+        private final BigDecimal rate;
+
+        TestProvider(String name, int priority, long delayMillis, String rate) {
+            this.name = name;
+            this.priority = priority;
+            this.delayMillis = delayMillis;
+            this.rate = rate == null ? null : new BigDecimal(rate);
+        }
+
+        @Override
+        public BigDecimal getExchangeRate(String fromCurrency, String toCurrency) {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rate;
+        }
+
+        @Override
+        public String getProviderName() {
+            return name;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.amsidh.mvc.service.impl;
+
+import com.amsidh.mvc.cache.LocalRateSnapshot;
+import com.amsidh.mvc.fallback.impl.CachedExchangeRateProvider;
+import com.amsidh.mvc.service.FallbackOrchestrationService;
+import com.amsidh.mvc.service.StreamingConversionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for StreamingConversionServiceImpl
+ * Verifies row-by-row NDJSON and CSV conversion, fallback flags and per-row errors
+ */
+class StreamingConversionServiceImplTest {
+
+    private final LocalRateSnapshot.Rates rates = new LocalRateSnapshot.Rates(7, "\"rates-v7\"",
+            Map.of("USD", Map.of("INR", new BigDecimal("83.5"))), 1);
+    private final StreamingConversionServiceImpl service;
+
+    StreamingConversionServiceImplTest() {
+        CachedExchangeRateProvider cachedProvider = new CachedExchangeRateProvider();
+        cachedProvider.cacheExchangeRate("EUR", "GBP", new BigDecimal("0.85"));
+        service = new StreamingConversionServiceImpl(new FallbackOrchestrationService(List.of(cachedProvider),
+                new SimpleMeterRegistry(), FallbackOrchestrationService.Mode.PRIORITY, Duration.ofMillis(20),
+                Duration.ofSeconds(2), 1),
+                new ObjectMapper());
+    }
+
+    @Test
+    void testNdjsonRowsAreConvertedInOrder() throws IOException {
+        String input = """
+                {"fromCurrency":"USD","toCurrency":"INR","quantity":10}
+                {"fromCurrency":"eur","toCurrency":"gbp","quantity":2}
+                {"fromCurrency":"USD","quantity":1}
+                """;
+
+        String output = convert(input, MediaType.APPLICATION_NDJSON);
+
+        assertEquals("""
+                {"fromCurrency":"USD","toCurrency":"INR","quantity":10,"rate":83.5,"totalAmount":835.0,"fallback":false}
+                {"fromCurrency":"eur","toCurrency":"gbp","quantity":2,"rate":0.85,"totalAmount":1.70,"fallback":true}
+                {"line":3,"error":"fromCurrency and toCurrency are required"}
+                """, output);
+    }
+
+    @Test
+    void testMalformedJsonStopsWithErrorRow() throws IOException {
+        String output = convert("[{\"fromCurrency\":\"USD\",\"toCurrency\":\"INR\",\"quantity\":1},{\"from",
+                MediaType.APPLICATION_JSON);
+
+        String[] lines = output.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].startsWith("{\"line\":2,\"error\":\"malformed row"));
+    }
+
+    @Test
+    void testCsvRowsAreConvertedWithHeader() throws IOException {
+        String input = "from,to,quantity\nUSD,INR,2\nUSD,INR,abc\n";
+
+        String output = convert(input, StreamingConversionService.TEXT_CSV);
+
+        assertEquals("""
+                fromCurrency,toCurrency,quantity,rate,totalAmount,fallback,error
+                USD,INR,2,83.5,167.0,false,
+                USD,INR,,,,false,quantity is required
+                """, output);
+    }
+
+    @Test
+    void testCsvInputGetsCsvOutputAndAnythingElseNdjson() {
+        assertEquals("text/csv;charset=UTF-8",
+                service.responseContentType(MediaType.parseMediaType("text/csv; charset=UTF-8")));
+        assertEquals(MediaType.APPLICATION_NDJSON_VALUE, service.responseContentType(MediaType.APPLICATION_JSON));
+        assertEquals(MediaType.APPLICATION_NDJSON_VALUE, service.responseContentType(MediaType.APPLICATION_NDJSON));
+    }
+
+    private String convert(String input, MediaType contentType) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        service.convert(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output, contentType, rates);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -1,13 +1,43 @@
 package com.amsidh.mvc.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.amsidh.mvc.dto.BatchRateResponseDto;
 import com.amsidh.mvc.dto.CurrencyExchangeDto;
+import com.amsidh.mvc.dto.CurrencyPairDto;
+import com.amsidh.mvc.dto.HistoricalRateDto;
+import com.amsidh.mvc.dto.IngestionResultDto;
+import com.amsidh.mvc.dto.RateDeltaDto;
+import com.amsidh.mvc.dto.RateEventDto;
+import com.amsidh.mvc.dto.RateSnapshotDto;
+import com.amsidh.mvc.rate.RatePayload;
 import com.amsidh.mvc.service.CurrencyExchangeService;
+import com.amsidh.mvc.service.RateHistoryService;
+import com.amsidh.mvc.service.RateIngestionService;
+import com.amsidh.mvc.service.RateSnapshotService;
+import com.amsidh.mvc.service.RateStreamService;
+import com.fasterxml.jackson.core.JsonProcessingException;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -17,7 +47,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @RestController
 @Tag(name = "Currency Exchange", description = "Endpoints to fetch exchange rates")
 @RequestMapping("/currencyexchange")
@@ -25,6 +57,13 @@ import lombok.RequiredArgsConstructor;
 public class CurrencyExchangeController {
 
     private final CurrencyExchangeService currencyExchangeService;
+    private final RateSnapshotService rateSnapshotService;
+    private final RateStreamService rateStreamService;
+    private final RateIngestionService rateIngestionService;
+    private final RateHistoryService rateHistoryService;
+
+    @Value("${currency-exchange.batch.max-pairs:500}")
+    private int maxBatchPairs;
 
     @GetMapping(value = "/{fromCurrency}/to/{toCurrency}/rate", produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(summary = "Get exchange rate", description = "Gets the current exchange rate for a currency pair")
@@ -33,9 +72,145 @@ public class CurrencyExchangeController {
             content = @Content(schema = @Schema(implementation = CurrencyExchangeDto.class))),
         @ApiResponse(responseCode = "404", description = "Rate not found", content = @Content)
     })
-    public CurrencyExchangeDto getCurrencyExchange(
+    public ResponseEntity<byte[]> getCurrencyExchange(
             @Parameter(description = "Source currency code", example = "USD") @PathVariable String fromCurrency,
             @Parameter(description = "Target currency code", example = "INR") @PathVariable String toCurrency) {
-        return currencyExchangeService.getCurrencyExchange(fromCurrency, toCurrency);
+        // Pre-encoded body is written as is, bypassing Jackson
+        return currencyExchangeService.getEncodedCurrencyExchange(fromCurrency, toCurrency)
+                .map(body -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/{fromCurrency}/to/{toCurrency}/rate/asof", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get historical exchange rate",
+        description = "Gets the stored rate that was in effect for a currency pair at the given instant")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Rate found",
+            content = @Content(schema = @Schema(implementation = HistoricalRateDto.class))),
+        @ApiResponse(responseCode = "404", description = "Pair had no rate at that instant", content = @Content)
+    })
+    public ResponseEntity<HistoricalRateDto> getCurrencyExchangeAsOf(
+            @Parameter(description = "Source currency code", example = "USD") @PathVariable String fromCurrency,
+            @Parameter(description = "Target currency code", example = "INR") @PathVariable String toCurrency,
+            @Parameter(description = "ISO-8601 date-time with offset", example = "2026-03-01T10:00Z")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime timestamp) {
+        return ResponseEntity.of(rateHistoryService.getRateAsOf(fromCurrency, toCurrency, timestamp.toInstant()));
+    }
+
+    @PostMapping(value = "/rates", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get exchange rates in batch",
+        description = "Resolves all pairs against one consistent snapshot; unknown pairs are returned as missing")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch resolved",
+            content = @Content(schema = @Schema(implementation = BatchRateResponseDto.class))),
+        @ApiResponse(responseCode = "400", description = "Empty or oversized batch", content = @Content)
+    })
+    public ResponseEntity<BatchRateResponseDto> getCurrencyExchanges(@RequestBody List<CurrencyPairDto> pairs) {
+        if (pairs == null || pairs.isEmpty() || pairs.size() > maxBatchPairs) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(currencyExchangeService.getCurrencyExchanges(pairs));
+    }
+
+    @GetMapping(value = "/rates", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get exchange rates in batch (query form)",
+        description = "Same as the POST form with pairs given as FROM-TO, comma separated")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch resolved",
+            content = @Content(schema = @Schema(implementation = BatchRateResponseDto.class))),
+        @ApiResponse(responseCode = "400", description = "Malformed, empty or oversized batch", content = @Content)
+    })
+    public ResponseEntity<BatchRateResponseDto> getCurrencyExchangesByQuery(
+            @Parameter(description = "Currency pairs", example = "USD-INR,EUR-GBP") @RequestParam List<String> pairs) {
+        if (pairs.isEmpty() || pairs.size() > maxBatchPairs) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<CurrencyPairDto> parsed = new ArrayList<>(pairs.size());
+        for (String pair : pairs) {
+            int separator = pair.indexOf('-');
+            if (separator <= 0 || separator == pair.length() - 1) {
+                return ResponseEntity.badRequest().build();
+            }
+            parsed.add(new CurrencyPairDto(pair.substring(0, separator).trim(), pair.substring(separator + 1).trim()));
+        }
+        return ResponseEntity.ok(currencyExchangeService.getCurrencyExchanges(parsed));
+    }
+
+    @GetMapping(value = "/snapshot", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get full rate snapshot",
+        description = "Returns the whole rate table with its version as ETag; honours If-None-Match")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Current snapshot",
+            content = @Content(schema = @Schema(implementation = RateSnapshotDto.class))),
+        @ApiResponse(responseCode = "304", description = "Snapshot unchanged", content = @Content)
+    })
+    public ResponseEntity<byte[]> getSnapshot(WebRequest webRequest) {
+        RatePayload snapshot = rateSnapshotService.getSnapshot();
+        if (webRequest.checkNotModified(snapshot.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(snapshot.etag()).body(snapshot.body());
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get rate changes since a version",
+        description = "Returns pairs changed since the given version, or the full table if that version is no longer retained")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Changes since version",
+            content = @Content(schema = @Schema(implementation = RateDeltaDto.class))),
+        @ApiResponse(responseCode = "304", description = "Already at the current version", content = @Content)
+    })
+    public ResponseEntity<byte[]> getChanges(
+            @Parameter(description = "Version the caller already holds", example = "1") @RequestParam long sinceVersion) {
+        return rateSnapshotService.getChangesSince(sinceVersion)
+                .map(delta -> ResponseEntity.ok().eTag(delta.etag()).body(delta.body()))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(RatePayload.etagOf(sinceVersion))
+                        .build());
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream rate changes",
+        description = "Server-Sent Events of changed pairs; event id is the snapshot version. "
+            + "Resume with Last-Event-ID or sinceVersion to receive only missed changes")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Event stream",
+            content = @Content(schema = @Schema(implementation = RateEventDto.class)))
+    })
+    public SseEmitter streamRateChanges(
+            @Parameter(description = "Version the caller already holds", example = "1")
+            @RequestParam(required = false) Long sinceVersion,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Long resumeFrom = sinceVersion;
+        if (resumeFrom == null && lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                resumeFrom = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                resumeFrom = null; // Unknown id, start from the current version
+            }
+        }
+        return rateStreamService.subscribe(resumeFrom);
+    }
+
+    @PostMapping(value = "/rates/ingest",
+        consumes = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE, "text/csv" },
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Bulk ingest rates",
+        description = "Streams NDJSON, a JSON array or CSV (from,to,rate) and upserts the rates in JDBC batches; "
+            + "readers see the whole feed as one new version")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Feed ingested; invalid rows are reported and skipped",
+            content = @Content(schema = @Schema(implementation = IngestionResultDto.class))),
+        @ApiResponse(responseCode = "400", description = "Malformed feed, nothing was written", content = @Content)
+    })
+    public ResponseEntity<IngestionResultDto> ingestRates(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) throws IOException {
+        try {
+            return ResponseEntity.ok(rateIngestionService.ingest(body, MediaType.parseMediaType(contentType)));
+        } catch (JsonProcessingException e) {
+            log.warn("Rejected malformed rate feed: {}", e.getOriginalMessage());
+            return ResponseEntity.badRequest().build();
+        }
     }
-}
\ No newline at end of file
+}
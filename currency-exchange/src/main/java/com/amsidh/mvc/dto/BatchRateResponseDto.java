@@ -0,0 +1,18 @@
+package com.amsidh.mvc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchRateResponseDto {
+    private long version;
+    private List<CurrencyExchangeDto> rates;
+    private List<CurrencyPairDto> missing;
+}
@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import com.amsidh.mvc.rate.RateSource;
+
 import java.math.BigDecimal;
 
 @Data
@@ -15,5 +17,8 @@ public class CurrencyExchangeDto {
     private String fromCurrency;
     private String toCurrency;
     private BigDecimal rate;
+    // DIRECT, INVERSE or TRIANGULATED; pivotCurrency is set for triangulated rates
+    private RateSource rateSource;
+    private String pivotCurrency;
     private String environment;
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.amsidh.mvc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HistoricalRateDto {
+    private String fromCurrency;
+    private String toCurrency;
+    private BigDecimal rate;
+    // When this rate took effect; it was still in effect at asOf
+    private Instant effectiveAt;
+    private Instant asOf;
+}
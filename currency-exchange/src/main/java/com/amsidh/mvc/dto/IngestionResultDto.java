@@ -0,0 +1,25 @@
+package com.amsidh.mvc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IngestionResultDto {
+    private long received;
+    private long inserted;
+    private long updated;
+    private long rejected;
+    // First few validation errors with their line number
+    private List<String> errors;
+    private long durationMs;
+    private long rowsPerSecond;
+    // Rate matrix version readers see after the ingest
+    private long version;
+}
@@ -0,0 +1,21 @@
+package com.amsidh.mvc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RateDeltaDto {
+    private long fromVersion;
+    private long version;
+    // True when fromVersion is no longer retained and changes holds the full table
+    private boolean full;
+    // A null rate means the pair was removed
+    private List<RateEntryDto> changes;
+}
@@ -0,0 +1,23 @@
+package com.amsidh.mvc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import com.amsidh.mvc.rate.RateSource;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RateEntryDto {
+    private String fromCurrency;
+    private String toCurrency;
+    private BigDecimal rate;
+    // DIRECT, INVERSE or TRIANGULATED; pivotCurrency is set for triangulated rates
+    private RateSource rateSource;
+    private String pivotCurrency;
+}
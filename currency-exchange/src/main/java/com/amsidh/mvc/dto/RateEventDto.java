@@ -0,0 +1,23 @@
+package com.amsidh.mvc.dto;
+
+import com.amsidh.mvc.rate.RateSource;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RateEventDto {
+    private String fromCurrency;
+    private String toCurrency;
+    // A null rate means the pair was removed
+    private BigDecimal rate;
+    private RateSource rateSource;
+    private String pivotCurrency;
+    private long version;
+}
@@ -0,0 +1,18 @@
+package com.amsidh.mvc.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RateIngestRowDto {
+    private String fromCurrency;
+    private String toCurrency;
+    private BigDecimal rate;
+}
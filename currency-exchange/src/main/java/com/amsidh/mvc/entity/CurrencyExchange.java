@@ -8,7 +8,7 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "currency_exchange")
+@Table(name = "currency_exchange", uniqueConstraints = @UniqueConstraint(columnNames = { "from_currency", "to_currency" }))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,34 @@
+package com.amsidh.mvc.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Entity
+@Table(name = "currency_exchange_history", indexes = @Index(name = "idx_history_pair_time",
+        columnList = "from_currency, to_currency, effective_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CurrencyExchangeHistory {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "from_currency", nullable = false, length = 3)
+    private String fromCurrency;
+
+    @Column(name = "to_currency", nullable = false, length = 3)
+    private String toCurrency;
+
+    // Null when the pair was removed from currency_exchange at effective_at
+    @Column(name = "rate", precision = 19, scale = 6)
+    private BigDecimal rate;
+
+    @Column(name = "effective_at", nullable = false)
+    private Instant effectiveAt;
+}
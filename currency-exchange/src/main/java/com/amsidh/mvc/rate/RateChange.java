@@ -0,0 +1,10 @@
+package com.amsidh.mvc.rate;
+
+import java.math.BigDecimal;
+
+/**
+ * A single pair rate taken from a {@link RateMatrix}; a null rate means the pair was removed
+ */
+public record RateChange(String fromCurrency, String toCurrency, BigDecimal rate, RateSource source,
+        String pivotCurrency) {
+}
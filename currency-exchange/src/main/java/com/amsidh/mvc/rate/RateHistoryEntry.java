@@ -0,0 +1,10 @@
+package com.amsidh.mvc.rate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * One appended rate change of a pair; a null rate is a tombstone recording that the pair was removed
+ */
+public record RateHistoryEntry(String fromCurrency, String toCurrency, BigDecimal rate, Instant effectiveAt) {
+}
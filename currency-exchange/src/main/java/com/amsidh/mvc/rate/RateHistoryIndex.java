@@ -0,0 +1,159 @@
+package com.amsidh.mvc.rate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable per-pair index over the currency_exchange_history table.
+ * Appends produce a new index sharing the timelines, and the per-currency maps,
+ * of untouched pairs.
+ */
+public final class RateHistoryIndex {
+
+    public static final RateHistoryIndex EMPTY = new RateHistoryIndex(Map.of(), 0);
+
+    // from currency -> to currency -> timeline
+    private final Map<String, Map<String, RateTimeline>> timelines;
+    private final long entryCount;
+
+    private RateHistoryIndex(Map<String, Map<String, RateTimeline>> timelines, long entryCount) {
+        this.timelines = timelines;
+        this.entryCount = entryCount;
+    }
+
+    /**
+     * Start an index from rows sorted by pair and effective time, as read from the table
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private static Map<String, Map<String, RateTimeline>> freeze(Map<String, Map<String, RateTimeline>> timelines) {
+        Map<String, Map<String, RateTimeline>> frozen = new HashMap<>(timelines.size() * 2);
+        timelines.forEach((from, byTo) -> frozen.put(from, Map.copyOf(byTo)));
+        return Map.copyOf(frozen);
+    }
+
+    /**
+     * Copy with the given entries appended. Only the timelines and per-currency maps
+     * of touched pairs are copied; everything else is shared with this index.
+     */
+    public RateHistoryIndex with(Collection<RateHistoryEntry> entries) {
+        if (entries.isEmpty()) {
+            return this;
+        }
+        Map<String, Map<String, RateTimeline>> touched = new HashMap<>();
+        for (RateHistoryEntry entry : entries) {
+            Map<String, RateTimeline> byTo = touched.computeIfAbsent(entry.fromCurrency(),
+                    from -> new HashMap<>(timelines.getOrDefault(from, Map.of())));
+            RateTimeline timeline = byTo.get(entry.toCurrency());
+            long time = entry.effectiveAt().toEpochMilli();
+            byTo.put(entry.toCurrency(), timeline == null
+                    ? new RateTimeline(new long[] { time }, new BigDecimal[] { entry.rate() })
+                    : timeline.with(time, entry.rate()));
+        }
+        Map<String, Map<String, RateTimeline>> copy = new HashMap<>(timelines);
+        touched.forEach((from, byTo) -> copy.put(from, Collections.unmodifiableMap(byTo)));
+        return new RateHistoryIndex(Collections.unmodifiableMap(copy), entryCount + entries.size());
+    }
+
+    /**
+     * Visit the timeline of every pair with history, removed pairs included
+     */
+    public void forEachTimeline(BiConsumer<String, Map<String, RateTimeline>> action) {
+        timelines.forEach(action);
+    }
+
+    /**
+     * Get the timeline of a pair (upper-case codes), or null if the pair has no history
+     */
+    public RateTimeline timeline(String fromCurrency, String toCurrency) {
+        Map<String, RateTimeline> byTo = timelines.get(fromCurrency);
+        return byTo == null ? null : byTo.get(toCurrency);
+    }
+
+    /**
+     * Get the rate in effect at the given instant, or null if the pair had none yet
+     * or had been removed by then
+     */
+    public RateHistoryEntry rateAsOf(String fromCurrency, String toCurrency, Instant asOf) {
+        RateTimeline timeline = timeline(fromCurrency, toCurrency);
+        if (timeline == null) {
+            return null;
+        }
+        int index = timeline.indexAt(epochMillis(asOf));
+        if (index < 0 || timeline.rate(index) == null) {
+            return null;
+        }
+        return new RateHistoryEntry(fromCurrency, toCurrency, timeline.rate(index),
+                Instant.ofEpochMilli(timeline.effectiveAt(index)));
+    }
+
+    private static long epochMillis(Instant instant) {
+        // Instants beyond the long millisecond range are clamped rather than overflowing
+        if (instant.getEpochSecond() >= Long.MAX_VALUE / 1000) {
+            return Long.MAX_VALUE;
+        }
+        if (instant.getEpochSecond() <= Long.MIN_VALUE / 1000) {
+            return Long.MIN_VALUE;
+        }
+        return instant.toEpochMilli();
+    }
+
+    public long entryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Accumulates one pair at a time into primitive arrays so loading a large
+     * history does not hold an object per row
+     */
+    public static final class Builder {
+        private final Map<String, Map<String, RateTimeline>> timelines = new HashMap<>();
+        private String fromCurrency;
+        private String toCurrency;
+        private long[] times = new long[16];
+        private BigDecimal[] rates = new BigDecimal[16];
+        private int size;
+        private long entryCount;
+
+        private Builder() {
+        }
+
+        public Builder add(String from, String to, BigDecimal rate, long epochMillis) {
+            if (size > 0 && !(from.equals(fromCurrency) && to.equals(toCurrency))) {
+                closeRun();
+            }
+            fromCurrency = from;
+            toCurrency = to;
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                rates = Arrays.copyOf(rates, size * 2);
+            }
+            times[size] = epochMillis;
+            rates[size] = rate;
+            size++;
+            entryCount++;
+            return this;
+        }
+
+        private void closeRun() {
+            timelines.computeIfAbsent(fromCurrency, from -> new HashMap<>())
+                    .put(toCurrency, new RateTimeline(Arrays.copyOf(times, size), Arrays.copyOf(rates, size)));
+            size = 0;
+        }
+
+        public RateHistoryIndex build() {
+            if (size > 0) {
+                closeRun();
+            }
+            return new RateHistoryIndex(freeze(timelines), entryCount);
+        }
+    }
+}
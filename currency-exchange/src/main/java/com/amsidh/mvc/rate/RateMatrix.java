@@ -0,0 +1,317 @@
+package com.amsidh.mvc.rate;
+
+import com.amsidh.mvc.entity.CurrencyExchange;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Immutable, array-backed snapshot of the currency_exchange table.
+ * Currencies are mapped to a dense ordinal (sorted by code) and rates are kept
+ * in a row-major array so a lookup is two map reads and one array read.
+ * Instances are never mutated; a table change produces a new matrix.
+ */
+public final class RateMatrix {
+
+    public static final RateMatrix EMPTY = new RateMatrix(0L, new String[0], Map.of(), new BigDecimal[0],
+            new RateSource[0], new int[0]);
+
+    // Scale of the rate column; derived rates are rounded to it
+    private static final int RATE_SCALE = 6;
+
+    private final long version;
+    private final String[] currencies;
+    private final Map<String, Integer> ordinals;
+    private final BigDecimal[] rates;
+    private final RateSource[] sources;
+    private final int[] pivots;
+
+    private RateMatrix(long version, String[] currencies, Map<String, Integer> ordinals, BigDecimal[] rates,
+            RateSource[] sources, int[] pivots) {
+        this.version = version;
+        this.currencies = currencies;
+        this.ordinals = ordinals;
+        this.rates = rates;
+        this.sources = sources;
+        this.pivots = pivots;
+    }
+
+    /**
+     * Build a matrix holding only the pairs stored in the table
+     */
+    public static RateMatrix of(long version, Collection<CurrencyExchange> rows) {
+        return of(version, rows, null);
+    }
+
+    /**
+     * Build a matrix from table rows. When pivot currencies are given (an empty list
+     * is allowed), missing pairs are derived up front: first as the inverse of the
+     * reverse pair, then through the path with the fewest legs, preferring the
+     * pivots in the given order. Request-time lookups never walk the rate graph.
+     */
+    public static RateMatrix of(long version, Collection<CurrencyExchange> rows, List<String> pivotCurrencies) {
+        TreeSet<String> codes = new TreeSet<>();
+        for (CurrencyExchange row : rows) {
+            codes.add(row.getFromCurrency().toUpperCase());
+            codes.add(row.getToCurrency().toUpperCase());
+        }
+
+        String[] currencies = codes.toArray(new String[0]);
+        Map<String, Integer> ordinals = new HashMap<>(currencies.length * 2);
+        for (int i = 0; i < currencies.length; i++) {
+            ordinals.put(currencies[i], i);
+        }
+
+        int size = currencies.length;
+        BigDecimal[] rates = new BigDecimal[size * size];
+        RateSource[] sources = new RateSource[size * size];
+        int[] pivots = new int[size * size];
+        Arrays.fill(pivots, -1);
+        for (CurrencyExchange row : rows) {
+            int from = ordinals.get(row.getFromCurrency().toUpperCase());
+            int to = ordinals.get(row.getToCurrency().toUpperCase());
+            rates[from * size + to] = row.getRate();
+            sources[from * size + to] = RateSource.DIRECT;
+        }
+
+        if (pivotCurrencies != null) {
+            int[] preferred = pivotCurrencies.stream()
+                    .map(String::toUpperCase)
+                    .filter(ordinals::containsKey)
+                    .mapToInt(ordinals::get)
+                    .toArray();
+            derive(size, rates, sources, pivots, preferred);
+        }
+
+        return new RateMatrix(version, currencies, Map.copyOf(ordinals), rates, sources, pivots);
+    }
+
+    /**
+     * Rebuild a matrix from previously encoded arrays without deriving anything.
+     * Used to restore a persisted snapshot; the arrays must come from a valid matrix.
+     */
+    static RateMatrix restore(long version, String[] currencies, BigDecimal[] rates, RateSource[] sources,
+            int[] pivots) {
+        Map<String, Integer> ordinals = new HashMap<>(currencies.length * 2);
+        for (int i = 0; i < currencies.length; i++) {
+            ordinals.put(currencies[i], i);
+        }
+        return new RateMatrix(version, currencies, Map.copyOf(ordinals), rates, sources, pivots);
+    }
+
+    private static void derive(int size, BigDecimal[] rates, RateSource[] sources, int[] pivots, int[] preferred) {
+        int[] legs = new int[rates.length];
+        for (int i = 0; i < rates.length; i++) {
+            legs[i] = rates[i] == null ? 0 : 1;
+        }
+
+        // Inverse of a stored reverse pair counts as a single leg
+        for (int from = 0; from < size; from++) {
+            for (int to = 0; to < size; to++) {
+                int cell = from * size + to;
+                BigDecimal reverse = rates[to * size + from];
+                if (from != to && rates[cell] == null && sources[to * size + from] == RateSource.DIRECT
+                        && reverse.signum() > 0) {
+                    rates[cell] = BigDecimal.ONE.divide(reverse, RATE_SCALE, RoundingMode.HALF_UP);
+                    sources[cell] = RateSource.INVERSE;
+                    legs[cell] = 1;
+                }
+            }
+        }
+
+        // Each pass may use pairs derived in earlier passes, so paths grow by one leg per pass
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            BigDecimal[] known = rates.clone();
+            int[] knownLegs = legs.clone();
+            for (int from = 0; from < size; from++) {
+                for (int to = 0; to < size; to++) {
+                    int cell = from * size + to;
+                    if (from == to || known[cell] != null) {
+                        continue;
+                    }
+                    int pivot = bestPivot(size, from, to, known, knownLegs, preferred);
+                    if (pivot >= 0) {
+                        rates[cell] = known[from * size + pivot].multiply(known[pivot * size + to])
+                                .setScale(RATE_SCALE, RoundingMode.HALF_UP);
+                        sources[cell] = RateSource.TRIANGULATED;
+                        pivots[cell] = pivot;
+                        legs[cell] = knownLegs[from * size + pivot] + knownLegs[pivot * size + to];
+                        changed = true;
+                    }
+                }
+            }
+        }
+    }
+
+    private static int bestPivot(int size, int from, int to, BigDecimal[] known, int[] knownLegs, int[] preferred) {
+        int best = -1;
+        int bestLegs = Integer.MAX_VALUE;
+        for (int pivot : preferred) {
+            int pathLegs = pathLegs(size, from, pivot, to, known, knownLegs);
+            if (pathLegs < bestLegs) {
+                best = pivot;
+                bestLegs = pathLegs;
+            }
+        }
+        for (int pivot = 0; pivot < size; pivot++) {
+            int pathLegs = pathLegs(size, from, pivot, to, known, knownLegs);
+            if (pathLegs < bestLegs) {
+                best = pivot;
+                bestLegs = pathLegs;
+            }
+        }
+        return best;
+    }
+
+    private static int pathLegs(int size, int from, int pivot, int to, BigDecimal[] known, int[] knownLegs) {
+        if (pivot == from || pivot == to || known[from * size + pivot] == null || known[pivot * size + to] == null) {
+            return Integer.MAX_VALUE;
+        }
+        return knownLegs[from * size + pivot] + knownLegs[pivot * size + to];
+    }
+
+    /**
+     * Get the dense ordinal of a currency code, or -1 if the code is unknown.
+     * Lower-case codes are accepted but cost an extra allocation.
+     */
+    public int ordinal(String currency) {
+        if (currency == null) {
+            return -1;
+        }
+        Integer ordinal = ordinals.get(currency);
+        if (ordinal == null) {
+            ordinal = ordinals.get(currency.toUpperCase());
+        }
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * Get rate by ordinals, or null if the pair is not present
+     */
+    public BigDecimal rate(int from, int to) {
+        return rates[from * currencies.length + to];
+    }
+
+    /**
+     * Get how the rate of a present pair was obtained
+     */
+    public RateSource source(int from, int to) {
+        return sources[from * currencies.length + to];
+    }
+
+    /**
+     * Get the pivot currency a triangulated rate was derived through, or null
+     */
+    public String pivot(int from, int to) {
+        int pivot = pivots[from * currencies.length + to];
+        return pivot < 0 ? null : currencies[pivot];
+    }
+
+    /**
+     * Get rate by currency codes, or null if the pair is not present
+     */
+    public BigDecimal rate(String fromCurrency, String toCurrency) {
+        int from = ordinal(fromCurrency);
+        int to = ordinal(toCurrency);
+        if (from < 0 || to < 0) {
+            return null;
+        }
+        return rate(from, to);
+    }
+
+    /**
+     * List every present rate in ordinal order
+     */
+    public List<RateChange> entries() {
+        List<RateChange> entries = new ArrayList<>();
+        for (int i = 0; i < rates.length; i++) {
+            if (rates[i] != null) {
+                entries.add(change(i, rates[i]));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * List the pairs whose rate differs from an older snapshot.
+     * Pairs that disappeared are reported with a null rate.
+     */
+    public List<RateChange> changesSince(RateMatrix older) {
+        List<RateChange> changes = new ArrayList<>();
+        int size = currencies.length;
+        for (int i = 0; i < rates.length; i++) {
+            BigDecimal rate = rates[i];
+            if (rate == null) {
+                continue;
+            }
+            BigDecimal previous = older.rate(currencies[i / size], currencies[i % size]);
+            if (previous == null || previous.compareTo(rate) != 0) {
+                changes.add(change(i, rate));
+            }
+        }
+
+        int olderSize = older.currencies.length;
+        for (int i = 0; i < older.rates.length; i++) {
+            if (older.rates[i] != null) {
+                String from = older.currencies[i / olderSize];
+                String to = older.currencies[i % olderSize];
+                if (rate(from, to) == null) {
+                    changes.add(new RateChange(from, to, null, null, null));
+                }
+            }
+        }
+        return changes;
+    }
+
+    private RateChange change(int cell, BigDecimal rate) {
+        int size = currencies.length;
+        int pivot = pivots[cell];
+        return new RateChange(currencies[cell / size], currencies[cell % size], rate, sources[cell],
+                pivot < 0 ? null : currencies[pivot]);
+    }
+
+    public String currency(int ordinal) {
+        return currencies[ordinal];
+    }
+
+    public int size() {
+        return currencies.length;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isEmpty() {
+        return currencies.length == 0;
+    }
+
+    /**
+     * Check whether both matrices hold the same currencies and rates (version is ignored)
+     */
+    public boolean hasSameRates(RateMatrix other) {
+        if (!Arrays.equals(currencies, other.currencies)) {
+            return false;
+        }
+        for (int i = 0; i < rates.length; i++) {
+            BigDecimal a = rates[i];
+            BigDecimal b = other.rates[i];
+            if (a == null ? b != null : (b == null || a.compareTo(b) != 0)) {
+                return false;
+            }
+            if (sources[i] != other.sources[i] || pivots[i] != other.pivots[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
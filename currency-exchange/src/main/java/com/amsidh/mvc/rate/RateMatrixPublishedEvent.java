@@ -0,0 +1,8 @@
+package com.amsidh.mvc.rate;
+
+/**
+ * Published after a new {@link RateMatrix} version becomes current.
+ * Previous and current are the same instance when a warm-start snapshot is confirmed by the database.
+ */
+public record RateMatrixPublishedEvent(RateMatrix previous, RateMatrix current) {
+}
@@ -0,0 +1,174 @@
+package com.amsidh.mvc.rate;
+
+import com.amsidh.mvc.repository.CurrencyExchangeRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the current {@link RateMatrix} and swaps it atomically (copy-on-write)
+ * when the currency_exchange table changes. Readers never lock.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RateMatrixRegistry {
+
+    private final CurrencyExchangeRepository currencyExchangeRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final RateMatrixSnapshotFile snapshotFile;
+
+    private final AtomicReference<RateMatrix> current = new AtomicReference<>(RateMatrix.EMPTY);
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    // Recently published versions, oldest first, kept to answer delta requests
+    private volatile List<RateMatrix> history = List.of();
+
+    // False until the current matrix has been checked against the database
+    private volatile boolean reconciled;
+
+    @Value("${currency-exchange.rate-matrix.history-size:16}")
+    private int historySize;
+
+    @Value("${currency-exchange.triangulation.enabled:true}")
+    private boolean triangulationEnabled;
+
+    @Value("${currency-exchange.triangulation.pivot-currencies:USD,EUR}")
+    private List<String> pivotCurrencies;
+
+    /**
+     * Get the current snapshot. Callers should read it once per request so all
+     * lookups of that request see a consistent version.
+     */
+    public RateMatrix current() {
+        return current.get();
+    }
+
+    /**
+     * True once the first snapshot has been loaded from the database
+     */
+    public boolean isLoaded() {
+        return current.get().getVersion() > 0;
+    }
+
+    /**
+     * Get a recently published version, or null if it is no longer retained
+     */
+    public RateMatrix find(long version) {
+        for (RateMatrix matrix : history) {
+            if (matrix.getVersion() == version) {
+                return matrix;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Serve the persisted snapshot of the previous run, if any, until the database is reconciled
+     */
+    @PostConstruct
+    public void warmStart() {
+        RateMatrix restored = snapshotFile.read();
+        if (restored != null && !restored.isEmpty()) {
+            history = List.of(restored);
+            current.set(restored);
+        }
+    }
+
+    /**
+     * Report ready as soon as the web server is up when a warm-start snapshot is being served;
+     * JPA may still be initializing in the background
+     */
+    @EventListener
+    public void onWebServerInitialized(WebServerInitializedEvent event) {
+        if (isLoaded() && !reconciled) {
+            AvailabilityChangeEvent.publish(event.getApplicationContext(), ReadinessState.ACCEPTING_TRAFFIC);
+            log.info("Serving warm-start rate matrix version {} until the database is reconciled",
+                    current.get().getVersion());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * Periodic reload to pick up rate changes made directly in the database
+     */
+    @Scheduled(fixedDelayString = "${currency-exchange.rate-matrix.refresh-interval:PT5M}",
+            initialDelayString = "${currency-exchange.rate-matrix.refresh-interval:PT5M}")
+    public void scheduledReload() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("Scheduled rate matrix reload failed, keeping version {}: {}",
+                    current.get().getVersion(), e.getMessage());
+        }
+    }
+
+    /**
+     * Reload the table and publish a new version if any rate changed
+     *
+     * @return the snapshot that is current after the reload
+     */
+    public RateMatrix reload() {
+        reloadLock.lock();
+        try {
+            RateMatrix previous = current.get();
+            RateMatrix candidate = RateMatrix.of(nextVersion(previous), currencyExchangeRepository.findAll(),
+                    triangulationEnabled ? pivotCurrencies : null);
+
+            if (previous.getVersion() > 0 && candidate.hasSameRates(previous)) {
+                if (!reconciled) {
+                    // A warm-start snapshot matches the database: keep its version so client ETags stay valid
+                    reconciled = true;
+                    applicationEventPublisher.publishEvent(new RateMatrixPublishedEvent(previous, previous));
+                    log.info("Warm-start rate matrix version {} matches the database", previous.getVersion());
+                }
+                log.debug("Rate matrix unchanged, keeping version {}", previous.getVersion());
+                return previous;
+            }
+
+            reconciled = true;
+            publish(candidate);
+            log.info("Published rate matrix version {} with {} currencies", candidate.getVersion(), candidate.size());
+            return candidate;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Versions are seeded from the wall clock so they keep increasing across restarts
+     * and a client holding a version from a previous process never looks up to date.
+     */
+    private long nextVersion(RateMatrix previous) {
+        return Math.max(previous.getVersion() + 1, System.currentTimeMillis());
+    }
+
+    private void publish(RateMatrix matrix) {
+        List<RateMatrix> retained = new ArrayList<>(history);
+        retained.add(matrix);
+        while (retained.size() > Math.max(historySize, 1)) {
+            retained.remove(0);
+        }
+        history = List.copyOf(retained);
+        RateMatrix previous = current.getAndSet(matrix);
+        applicationEventPublisher.publishEvent(new RateMatrixPublishedEvent(previous, matrix));
+    }
+}
@@ -0,0 +1,181 @@
+package com.amsidh.mvc.rate;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Persists the current {@link RateMatrix} to a compact binary file so the next start
+ * can serve rates before JPA is up. The file is memory-mapped on read and replaced
+ * atomically on write.
+ * <p>
+ * Layout (big-endian): magic, format, version, currency count, currencies
+ * (length-prefixed ASCII), present cell count, cells (index, source, pivot, scale,
+ * length-prefixed unscaled value), CRC32 of everything before it.
+ */
+@Slf4j
+@Component
+public class RateMatrixSnapshotFile {
+
+    private static final int MAGIC = 0x524D5831; // "RMX1"
+    private static final int FORMAT = 1;
+
+    @Value("${currency-exchange.rate-matrix.snapshot-file.enabled:true}")
+    private boolean enabled;
+
+    @Value("${currency-exchange.rate-matrix.snapshot-file.path:${java.io.tmpdir}/currency-exchange/rate-matrix.bin}")
+    private Path path;
+
+    /**
+     * Read the persisted matrix, or null when disabled, missing or unreadable
+     */
+    public RateMatrix read() {
+        if (!enabled || !Files.isRegularFile(path)) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            RateMatrix matrix = decode(buffer);
+            log.info("Restored rate matrix version {} with {} currencies from {} in {} ms",
+                    matrix.getVersion(), matrix.size(), path, (System.nanoTime() - start) / 1_000_000);
+            return matrix;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable rate matrix snapshot {}: {}", path, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Keep the file in step with every published version
+     */
+    @EventListener
+    public void onRateMatrixPublished(RateMatrixPublishedEvent event) {
+        if (enabled && event.current() != event.previous()) {
+            write(event.current());
+        }
+    }
+
+    void write(RateMatrix matrix) {
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), "rate-matrix", ".tmp");
+            try {
+                Files.write(temp, encode(matrix));
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            log.debug("Wrote rate matrix version {} to {}", matrix.getVersion(), path);
+        } catch (IOException e) {
+            log.warn("Failed to write rate matrix snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    static byte[] encode(RateMatrix matrix) {
+        int size = matrix.size();
+        byte[][] codes = new byte[size][];
+        int length = 4 + 4 + 8 + 4 + 4 + 4;
+        for (int i = 0; i < size; i++) {
+            codes[i] = matrix.currency(i).getBytes(StandardCharsets.US_ASCII);
+            length += 1 + codes[i].length;
+        }
+        byte[][] unscaled = new byte[size * size][];
+        for (int from = 0; from < size; from++) {
+            for (int to = 0; to < size; to++) {
+                BigDecimal rate = matrix.rate(from, to);
+                if (rate != null) {
+                    unscaled[from * size + to] = rate.unscaledValue().toByteArray();
+                    length += 4 + 1 + 4 + 4 + 1 + unscaled[from * size + to].length;
+                }
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.putInt(MAGIC).putInt(FORMAT).putLong(matrix.getVersion()).putInt(size);
+        for (byte[] code : codes) {
+            buffer.put((byte) code.length).put(code);
+        }
+        int countPosition = buffer.position();
+        buffer.putInt(0);
+        int cells = 0;
+        for (int from = 0; from < size; from++) {
+            for (int to = 0; to < size; to++) {
+                byte[] value = unscaled[from * size + to];
+                if (value == null) {
+                    continue;
+                }
+                String pivot = matrix.pivot(from, to);
+                buffer.putInt(from * size + to)
+                        .put((byte) matrix.source(from, to).ordinal())
+                        .putInt(pivot == null ? -1 : matrix.ordinal(pivot))
+                        .putInt(matrix.rate(from, to).scale())
+                        .put((byte) value.length)
+                        .put(value);
+                cells++;
+            }
+        }
+        buffer.putInt(countPosition, cells);
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        return buffer.array();
+    }
+
+    static RateMatrix decode(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(0, buffer.limit() - 4));
+        if ((int) crc.getValue() != buffer.getInt(buffer.limit() - 4)) {
+            throw new IllegalStateException("checksum mismatch");
+        }
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT) {
+                throw new IllegalStateException("unknown format");
+            }
+            long version = buffer.getLong();
+            int size = buffer.getInt();
+            String[] currencies = new String[size];
+            for (int i = 0; i < size; i++) {
+                byte[] code = new byte[buffer.get()];
+                buffer.get(code);
+                currencies[i] = new String(code, StandardCharsets.US_ASCII);
+            }
+
+            BigDecimal[] rates = new BigDecimal[size * size];
+            RateSource[] sources = new RateSource[size * size];
+            int[] pivots = new int[size * size];
+            Arrays.fill(pivots, -1);
+            RateSource[] sourceValues = RateSource.values();
+            int cells = buffer.getInt();
+            for (int i = 0; i < cells; i++) {
+                int cell = buffer.getInt();
+                sources[cell] = sourceValues[buffer.get()];
+                pivots[cell] = buffer.getInt();
+                int scale = buffer.getInt();
+                byte[] value = new byte[buffer.get()];
+                buffer.get(value);
+                rates[cell] = new BigDecimal(new BigInteger(value), scale);
+            }
+            return RateMatrix.restore(version, currencies, rates, sources, pivots);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalStateException("truncated snapshot", e);
+        }
+    }
+}
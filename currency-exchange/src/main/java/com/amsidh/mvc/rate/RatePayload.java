@@ -0,0 +1,11 @@
+package com.amsidh.mvc.rate;
+
+/**
+ * JSON body encoded once for a snapshot version and reused for every request of that version
+ */
+public record RatePayload(long version, String etag, byte[] body) {
+
+    public static String etagOf(long version) {
+        return "\"rates-v" + version + "\"";
+    }
+}
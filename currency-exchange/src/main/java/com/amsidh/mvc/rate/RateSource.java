@@ -0,0 +1,10 @@
+package com.amsidh.mvc.rate;
+
+/**
+ * How a rate in the {@link RateMatrix} was obtained
+ */
+public enum RateSource {
+    DIRECT, // Stored in the currency_exchange table
+    INVERSE, // 1 / rate of the stored reverse pair
+    TRIANGULATED // Product of rates through a pivot currency
+}
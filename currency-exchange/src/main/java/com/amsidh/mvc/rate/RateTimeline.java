@@ -0,0 +1,70 @@
+package com.amsidh.mvc.rate;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Immutable rate history of one currency pair, held as parallel arrays sorted by
+ * effective time so an as-of lookup is a binary search over primitive longs.
+ * A null rate is a tombstone: the pair had no rate from that time on.
+ */
+public final class RateTimeline {
+
+    private final long[] effectiveAt;
+    private final BigDecimal[] rates;
+
+    RateTimeline(long[] effectiveAt, BigDecimal[] rates) {
+        this.effectiveAt = effectiveAt;
+        this.rates = rates;
+    }
+
+    /**
+     * Get the position of the rate in effect at the given epoch millis, or -1 if
+     * the pair had no rate yet. Entries with the same timestamp resolve to the last one.
+     */
+    public int indexAt(long epochMillis) {
+        int index = Arrays.binarySearch(effectiveAt, epochMillis);
+        if (index < 0) {
+            return -index - 2; // Insertion point minus one is the floor entry
+        }
+        while (index + 1 < effectiveAt.length && effectiveAt[index + 1] == epochMillis) {
+            index++;
+        }
+        return index;
+    }
+
+    public long effectiveAt(int index) {
+        return effectiveAt[index];
+    }
+
+    public BigDecimal rate(int index) {
+        return rates[index];
+    }
+
+    /**
+     * Get the most recent rate, or null if the pair was removed since
+     */
+    public BigDecimal latestRate() {
+        return rates[rates.length - 1];
+    }
+
+    public int size() {
+        return rates.length;
+    }
+
+    /**
+     * Copy with one more entry; the entry is placed by time so late arrivals stay sorted
+     */
+    RateTimeline with(long epochMillis, BigDecimal rate) {
+        int position = indexAt(epochMillis) + 1;
+        long[] times = new long[effectiveAt.length + 1];
+        BigDecimal[] values = new BigDecimal[rates.length + 1];
+        System.arraycopy(effectiveAt, 0, times, 0, position);
+        System.arraycopy(rates, 0, values, 0, position);
+        times[position] = epochMillis;
+        values[position] = rate;
+        System.arraycopy(effectiveAt, position, times, position + 1, effectiveAt.length - position);
+        System.arraycopy(rates, position, values, position + 1, rates.length - position);
+        return new RateTimeline(times, values);
+    }
+}
@@ -1,7 +1,13 @@
 package com.amsidh.mvc.service;
 
-import com.amsidh.mvc.dto.CurrencyExchangeDto;
+import com.amsidh.mvc.dto.BatchRateResponseDto;
+import com.amsidh.mvc.dto.CurrencyPairDto;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface CurrencyExchangeService {
-    CurrencyExchangeDto getCurrencyExchange(String fromCurrency, String toCurrency);
+    Optional<byte[]> getEncodedCurrencyExchange(String fromCurrency, String toCurrency);
+
+    BatchRateResponseDto getCurrencyExchanges(List<CurrencyPairDto> pairs);
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.amsidh.mvc.service;
+
+import com.amsidh.mvc.dto.HistoricalRateDto;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface RateHistoryService {
+    Optional<HistoricalRateDto> getRateAsOf(String fromCurrency, String toCurrency, Instant asOf);
+}
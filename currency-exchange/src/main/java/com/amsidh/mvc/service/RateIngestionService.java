@@ -0,0 +1,11 @@
+package com.amsidh.mvc.service;
+
+import com.amsidh.mvc.dto.IngestionResultDto;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface RateIngestionService {
+    IngestionResultDto ingest(InputStream body, MediaType contentType) throws IOException;
+}
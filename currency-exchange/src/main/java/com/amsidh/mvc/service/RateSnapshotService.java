@@ -0,0 +1,11 @@
+package com.amsidh.mvc.service;
+
+import com.amsidh.mvc.rate.RatePayload;
+
+import java.util.Optional;
+
+public interface RateSnapshotService {
+    RatePayload getSnapshot();
+
+    Optional<RatePayload> getChangesSince(long sinceVersion);
+}
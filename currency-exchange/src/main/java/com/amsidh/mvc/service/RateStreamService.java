@@ -0,0 +1,7 @@
+package com.amsidh.mvc.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface RateStreamService {
+    SseEmitter subscribe(Long sinceVersion);
+}
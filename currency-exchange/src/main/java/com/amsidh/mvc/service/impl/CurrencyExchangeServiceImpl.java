@@ -1,43 +1,203 @@
 package com.amsidh.mvc.service.impl;
 
+import com.amsidh.mvc.common.deadline.Deadline;
 import com.amsidh.mvc.common.util.CommonUtils;
+import com.amsidh.mvc.dto.BatchRateResponseDto;
 import com.amsidh.mvc.dto.CurrencyExchangeDto;
+import com.amsidh.mvc.dto.CurrencyPairDto;
 import com.amsidh.mvc.entity.CurrencyExchange;
+import com.amsidh.mvc.rate.RateMatrix;
+import com.amsidh.mvc.rate.RateMatrixPublishedEvent;
+import com.amsidh.mvc.rate.RateMatrixRegistry;
+import com.amsidh.mvc.rate.RateSource;
 import com.amsidh.mvc.repository.CurrencyExchangeRepository;
 import com.amsidh.mvc.service.CurrencyExchangeService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 @Service
 @RequiredArgsConstructor
 public class CurrencyExchangeServiceImpl implements CurrencyExchangeService {
 
     private final CurrencyExchangeRepository currencyExchangeRepository;
+    private final RateMatrixRegistry rateMatrixRegistry;
+    private final ObjectMapper objectMapper;
+
+    // JSON bodies of the current matrix version, encoded on first request per pair
+    private final AtomicReference<EncodedRates> encodedRates = new AtomicReference<>();
+
+    // Pairs the database reported absent while the matrix was not loaded yet; cleared on every publish
+    private final Set<String> absentPairs = ConcurrentHashMap.newKeySet();
 
     @Value("${server.port}")
     private String port;
 
+    @Value("${currency-exchange.negative-cache.max-size:10000}")
+    private int negativeCacheMaxSize;
+
+    private String environment;
+
+    @PostConstruct
+    public void init() {
+        environment = CommonUtils.getServiceEnvironmentInfo("currency-exchange-service", port);
+    }
+
+    /**
+     * Get the JSON body of a pair's rate, or empty if the pair is unknown. Misses are
+     * answered from memory: once loaded, the matrix holds every known pair and is the
+     * negative cache itself; before that, database misses are remembered. Bodies are
+     * encoded once per pair and matrix version, so repeated lookups skip DTO
+     * building and serialization entirely.
+     */
     @Override
-    public CurrencyExchangeDto getCurrencyExchange(String fromCurrency, String toCurrency) {
-        CurrencyExchange currencyExchange = currencyExchangeRepository
-                .findByFromCurrencyAndToCurrency(fromCurrency.toUpperCase(), toCurrency.toUpperCase())
-                .orElseThrow(() -> new RuntimeException(
-                        "Currency exchange not found for " + fromCurrency + " to " + toCurrency));
-
-        return CurrencyExchangeDto.builder()
-                .fromCurrency(currencyExchange.getFromCurrency())
-                .toCurrency(currencyExchange.getToCurrency())
-                .rate(currencyExchange.getRate())
-                .environment(getServiceEnvironmentInfo())
+    public Optional<byte[]> getEncodedCurrencyExchange(String fromCurrency, String toCurrency) {
+        if (!rateMatrixRegistry.isLoaded()) {
+            // Matrix is published on application ready; serve from the database until then
+            return getCurrencyExchangeFromDatabase(fromCurrency, toCurrency).map(this::encode);
+        }
+
+        EncodedRates encoded = encodedRates(rateMatrixRegistry.current());
+        RateMatrix matrix = encoded.matrix();
+        int from = matrix.ordinal(fromCurrency);
+        int to = matrix.ordinal(toCurrency);
+        if (from < 0 || to < 0 || matrix.rate(from, to) == null) {
+            return Optional.empty();
+        }
+
+        int cell = from * matrix.size() + to;
+        byte[] body = encoded.bodies().get(cell);
+        if (body == null) {
+            // Racing requests may both encode the same pair; the bodies are identical
+            body = encode(CurrencyExchangeDto.builder()
+                    .fromCurrency(matrix.currency(from))
+                    .toCurrency(matrix.currency(to))
+                    .rate(matrix.rate(from, to))
+                    .rateSource(matrix.source(from, to))
+                    .pivotCurrency(matrix.pivot(from, to))
+                    .environment(environment)
+                    .build());
+            encoded.bodies().set(cell, body);
+        }
+        return Optional.of(body);
+    }
+
+    /**
+     * Resolve all pairs against a single snapshot so the batch sees one
+     * consistent version. Unknown pairs are reported instead of failing the batch.
+     */
+    @Override
+    public BatchRateResponseDto getCurrencyExchanges(List<CurrencyPairDto> pairs) {
+        // Before the first publish, load the table once rather than querying per pair
+        RateMatrix matrix = rateMatrixRegistry.current();
+        if (!rateMatrixRegistry.isLoaded()) {
+            Deadline.checkNotExpired("database");
+            matrix = rateMatrixRegistry.reload();
+        }
+        String environment = getServiceEnvironmentInfo();
+
+        List<CurrencyExchangeDto> rates = new ArrayList<>(pairs.size());
+        List<CurrencyPairDto> missing = new ArrayList<>();
+        for (CurrencyPairDto pair : pairs) {
+            int from = matrix.ordinal(pair.getFromCurrency());
+            int to = matrix.ordinal(pair.getToCurrency());
+            BigDecimal rate = from < 0 || to < 0 ? null : matrix.rate(from, to);
+            if (rate == null) {
+                missing.add(pair);
+                continue;
+            }
+            rates.add(CurrencyExchangeDto.builder()
+                    .fromCurrency(matrix.currency(from))
+                    .toCurrency(matrix.currency(to))
+                    .rate(rate)
+                    .rateSource(matrix.source(from, to))
+                    .pivotCurrency(matrix.pivot(from, to))
+                    .environment(environment)
+                    .build());
+        }
+
+        return BatchRateResponseDto.builder()
+                .version(matrix.getVersion())
+                .rates(rates)
+                .missing(missing)
                 .build();
     }
 
+    /**
+     * The published matrix now answers all lookups, so remembered database misses are stale
+     */
+    @EventListener
+    public void onRateMatrixPublished(RateMatrixPublishedEvent event) {
+        absentPairs.clear();
+    }
+
+    private Optional<CurrencyExchangeDto> getCurrencyExchangeFromDatabase(String fromCurrency, String toCurrency) {
+        String key = fromCurrency.toUpperCase() + ":" + toCurrency.toUpperCase();
+        if (absentPairs.contains(key)) {
+            return Optional.empty();
+        }
+
+        // Memory answers are cheaper than checking; a database query for a caller who gave up is not
+        Deadline.checkNotExpired("database");
+        Optional<CurrencyExchange> currencyExchange = currencyExchangeRepository
+                .findByFromCurrencyAndToCurrency(fromCurrency.toUpperCase(), toCurrency.toUpperCase());
+        if (currencyExchange.isEmpty()) {
+            if (absentPairs.size() >= negativeCacheMaxSize) {
+                absentPairs.clear(); // Bound memory against probes of random pairs
+            }
+            absentPairs.add(key);
+            return Optional.empty();
+        }
+
+        return currencyExchange.map(row -> CurrencyExchangeDto.builder()
+                .fromCurrency(row.getFromCurrency())
+                .toCurrency(row.getToCurrency())
+                .rate(row.getRate())
+                .rateSource(RateSource.DIRECT)
+                .environment(getServiceEnvironmentInfo())
+                .build());
+    }
+
+    private EncodedRates encodedRates(RateMatrix matrix) {
+        EncodedRates cached = encodedRates.get();
+        if (cached != null && cached.matrix() == matrix) {
+            return cached;
+        }
+        EncodedRates fresh = new EncodedRates(matrix, new AtomicReferenceArray<>(matrix.size() * matrix.size()));
+        encodedRates.compareAndSet(cached, fresh);
+        return fresh;
+    }
+
+    private byte[] encode(CurrencyExchangeDto dto) {
+        try {
+            return objectMapper.writeValueAsBytes(dto);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode currency exchange", e);
+        }
+    }
+
     /**
      * Get service environment information including hostname and port
-     * Essential for Kubernetes pod identification and debugging
+     * Essential for Kubernetes pod identification and debugging.
+     * Neither changes at runtime, so it is formatted once.
      */
     private String getServiceEnvironmentInfo() {
-        return CommonUtils.getServiceEnvironmentInfo("currency-exchange-service", port);
+        return environment;
+    }
+
+    private record EncodedRates(RateMatrix matrix, AtomicReferenceArray<byte[]> bodies) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,153 @@
+package com.amsidh.mvc.service.impl;
+
+import com.amsidh.mvc.dto.HistoricalRateDto;
+import com.amsidh.mvc.rate.RateChange;
+import com.amsidh.mvc.rate.RateHistoryEntry;
+import com.amsidh.mvc.rate.RateHistoryIndex;
+import com.amsidh.mvc.rate.RateMatrix;
+import com.amsidh.mvc.rate.RateMatrixPublishedEvent;
+import com.amsidh.mvc.rate.RateSource;
+import com.amsidh.mvc.rate.RateTimeline;
+import com.amsidh.mvc.service.RateHistoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only history of stored rates. Every published rate matrix version appends
+ * the stored (direct) pairs whose rate changed, and a tombstone for each stored pair
+ * that was removed, effective when the version was read from the table.
+ * As-of reads are served from an in-memory {@link RateHistoryIndex} loaded once
+ * from currency_exchange_history and extended on every append; the table is never scanned per request.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RateHistoryServiceImpl implements RateHistoryService {
+
+    private static final String SELECT_SQL = "SELECT from_currency, to_currency, rate, effective_at "
+            + "FROM currency_exchange_history ORDER BY from_currency, to_currency, effective_at, id";
+    private static final String INSERT_SQL = "INSERT INTO currency_exchange_history "
+            + "(from_currency, to_currency, rate, effective_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final AtomicReference<RateHistoryIndex> index = new AtomicReference<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    @Override
+    public Optional<HistoricalRateDto> getRateAsOf(String fromCurrency, String toCurrency, Instant asOf) {
+        RateHistoryEntry entry = index().rateAsOf(fromCurrency.toUpperCase(), toCurrency.toUpperCase(), asOf);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        return Optional.of(HistoricalRateDto.builder()
+                .fromCurrency(entry.fromCurrency())
+                .toCurrency(entry.toCurrency())
+                .rate(entry.rate())
+                .effectiveAt(entry.effectiveAt())
+                .asOf(asOf)
+                .build());
+    }
+
+    /**
+     * Record the stored pairs changed by a newly published version.
+     * Runs on the publishing thread so entries are appended in version order.
+     * The version is already current, so a failed write is logged rather than failing the
+     * publisher; the index is left as it was and the next version appends the difference.
+     */
+    @EventListener
+    public void onRateMatrixPublished(RateMatrixPublishedEvent event) {
+        appendLock.lock();
+        try {
+            append(event.current());
+        } catch (DataAccessException e) {
+            log.warn("Failed to record rate history for version {}, retrying with the next version: {}",
+                    event.current().getVersion(), e.getMessage());
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void append(RateMatrix current) {
+        RateHistoryIndex history = index();
+        // Versions are the wall clock millis at which the table was read, so a warm-start
+        // snapshot confirmed by the database keeps the time its rates were first seen
+        Instant effectiveAt = Instant.ofEpochMilli(current.getVersion());
+        List<RateHistoryEntry> appended = new ArrayList<>();
+        // Compare every stored pair with the history rather than with the previous version,
+        // so pairs restored from a warm-start snapshot are still recorded once
+        for (RateChange change : current.entries()) {
+            if (change.source() != RateSource.DIRECT) {
+                continue; // Derived rates are rebuilt from stored ones
+            }
+            RateTimeline timeline = history.timeline(change.fromCurrency(), change.toCurrency());
+            BigDecimal latest = timeline == null ? null : timeline.latestRate();
+            if (latest == null || latest.compareTo(change.rate()) != 0) {
+                appended.add(new RateHistoryEntry(change.fromCurrency(), change.toCurrency(),
+                        change.rate(), effectiveAt));
+            }
+        }
+        // Stored pairs no longer in the table get a tombstone, so as-of lookups after it find no rate
+        history.forEachTimeline((from, byTo) -> byTo.forEach((to, timeline) -> {
+            if (timeline.latestRate() != null && !isStored(current, from, to)) {
+                appended.add(new RateHistoryEntry(from, to, null, effectiveAt));
+            }
+        }));
+        if (appended.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, appended.stream()
+                .map(entry -> new Object[] { entry.fromCurrency(), entry.toCurrency(), entry.rate(),
+                        Timestamp.from(entry.effectiveAt()) })
+                .toList());
+        index.set(history.with(appended));
+        log.info("Appended {} rate history entries for version {}", appended.size(), current.getVersion());
+    }
+
+    private static boolean isStored(RateMatrix matrix, String fromCurrency, String toCurrency) {
+        int from = matrix.ordinal(fromCurrency);
+        int to = matrix.ordinal(toCurrency);
+        return from >= 0 && to >= 0 && matrix.rate(from, to) != null && matrix.source(from, to) == RateSource.DIRECT;
+    }
+
+    /**
+     * The index is loaded on first use, which is at the latest the first published version
+     */
+    private RateHistoryIndex index() {
+        RateHistoryIndex loaded = index.get();
+        if (loaded != null) {
+            return loaded;
+        }
+        appendLock.lock();
+        try {
+            if (index.get() == null) {
+                long start = System.nanoTime();
+                RateHistoryIndex.Builder builder = RateHistoryIndex.builder();
+                jdbcTemplate.query(SELECT_SQL, rs -> {
+                    builder.add(rs.getString(1), rs.getString(2), rs.getBigDecimal(3),
+                            rs.getTimestamp(4).getTime());
+                });
+                index.set(builder.build());
+                log.info("Loaded {} rate history entries in {} ms",
+                        index.get().entryCount(), (System.nanoTime() - start) / 1_000_000);
+            }
+            return index.get();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+}
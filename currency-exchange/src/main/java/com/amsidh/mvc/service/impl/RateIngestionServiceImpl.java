@@ -0,0 +1,310 @@
+package com.amsidh.mvc.service.impl;
+
+import com.amsidh.mvc.dto.IngestionResultDto;
+import com.amsidh.mvc.dto.RateIngestRowDto;
+import com.amsidh.mvc.rate.RateMatrix;
+import com.amsidh.mvc.rate.RateMatrixRegistry;
+import com.amsidh.mvc.service.RateIngestionService;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bulk rate ingestion. The feed is parsed row by row, validated and upserted
+ * with JDBC batch statements in fixed-size chunks, all in one transaction.
+ * Readers see the whole feed as a single new rate matrix version.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RateIngestionServiceImpl implements RateIngestionService {
+
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private static final String SELECT_KEYS_SQL = "SELECT from_currency, to_currency FROM currency_exchange";
+    private static final String UPDATE_SQL =
+            "UPDATE currency_exchange SET rate = ? WHERE from_currency = ? AND to_currency = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO currency_exchange (from_currency, to_currency, rate) VALUES (?, ?, ?)";
+
+    private static final int RATE_SCALE = 6;
+    private static final int MAX_INTEGER_DIGITS = 13; // precision 19, scale 6
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final RateMatrixRegistry rateMatrixRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Value("${currency-exchange.ingest.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${currency-exchange.ingest.max-reported-errors:20}")
+    private int maxReportedErrors;
+
+    @Override
+    public IngestionResultDto ingest(InputStream body, MediaType contentType) throws IOException {
+        long start = System.nanoTime();
+        RowReader reader = TEXT_CSV.isCompatibleWith(contentType) ? new CsvRowReader(body) : new JsonRowReader(body);
+        IngestionCounters counters = new IngestionCounters();
+
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                try {
+                    ingestRows(reader, counters);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        // One reload after commit publishes the whole feed as a single version
+        RateMatrix matrix = counters.inserted + counters.updated > 0
+                ? rateMatrixRegistry.reload()
+                : rateMatrixRegistry.current();
+
+        long durationNanos = Math.max(System.nanoTime() - start, 1);
+        long rowsPerSecond = counters.received * 1_000_000_000L / durationNanos;
+        log.info("Ingested {} rates ({} inserted, {} updated, {} rejected) in {} ms, {} rows/s, version {}",
+                counters.received, counters.inserted, counters.updated, counters.rejected,
+                durationNanos / 1_000_000, rowsPerSecond, matrix.getVersion());
+
+        return IngestionResultDto.builder()
+                .received(counters.received)
+                .inserted(counters.inserted)
+                .updated(counters.updated)
+                .rejected(counters.rejected)
+                .errors(counters.errors)
+                .durationMs(durationNanos / 1_000_000)
+                .rowsPerSecond(rowsPerSecond)
+                .version(matrix.getVersion())
+                .build();
+    }
+
+    private void ingestRows(RowReader reader, IngestionCounters counters) throws IOException {
+        Set<String> existingKeys = new HashSet<>();
+        jdbcTemplate.query(SELECT_KEYS_SQL, rs -> {
+            existingKeys.add(key(rs.getString(1), rs.getString(2)));
+        });
+
+        List<Object[]> inserts = new ArrayList<>(chunkSize);
+        List<Object[]> updates = new ArrayList<>(chunkSize);
+        RateIngestRowDto row;
+        while ((row = reader.next()) != null) {
+            counters.received++;
+            String error = reader.rowError() != null ? reader.rowError() : validate(row);
+            if (error != null) {
+                counters.reject("line " + reader.line() + ": " + error, maxReportedErrors);
+                continue;
+            }
+
+            String from = row.getFromCurrency().toUpperCase();
+            String to = row.getToCurrency().toUpperCase();
+            BigDecimal rate = row.getRate().setScale(RATE_SCALE, RoundingMode.HALF_UP);
+            if (existingKeys.add(key(from, to))) {
+                inserts.add(new Object[] { from, to, rate });
+            } else {
+                updates.add(new Object[] { rate, from, to });
+            }
+
+            if (inserts.size() + updates.size() >= chunkSize) {
+                flush(inserts, updates, counters);
+            }
+        }
+        flush(inserts, updates, counters);
+    }
+
+    /**
+     * Inserts run before updates so a pair repeated within a chunk keeps its last rate
+     */
+    private void flush(List<Object[]> inserts, List<Object[]> updates, IngestionCounters counters) {
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+            counters.inserted += inserts.size();
+            inserts.clear();
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+            counters.updated += updates.size();
+            updates.clear();
+        }
+    }
+
+    private String validate(RateIngestRowDto row) {
+        if (!isCurrencyCode(row.getFromCurrency()) || !isCurrencyCode(row.getToCurrency())) {
+            return "currency codes must be 3 letters";
+        }
+        if (row.getFromCurrency().equalsIgnoreCase(row.getToCurrency())) {
+            return "from and to currency must differ";
+        }
+        if (row.getRate() == null || row.getRate().signum() <= 0) {
+            return "rate must be positive";
+        }
+        if (row.getRate().precision() - row.getRate().scale() > MAX_INTEGER_DIGITS) {
+            return "rate is too large";
+        }
+        return null;
+    }
+
+    private boolean isCurrencyCode(String code) {
+        if (code == null || code.length() != 3) {
+            return false;
+        }
+        for (int i = 0; i < 3; i++) {
+            if (!Character.isLetter(code.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String key(String from, String to) {
+        return from + ":" + to;
+    }
+
+    private static class IngestionCounters {
+        private long received;
+        private long inserted;
+        private long updated;
+        private long rejected;
+        private final List<String> errors = new ArrayList<>();
+
+        private void reject(String error, int maxReportedErrors) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(error);
+            }
+        }
+    }
+
+    /**
+     * Pull-style reader so only the current row is held in memory
+     */
+    private interface RowReader {
+        RateIngestRowDto next() throws IOException;
+
+        long line();
+
+        /**
+         * Why the row just read could not be parsed, or null if it could
+         */
+        default String rowError() {
+            return null;
+        }
+    }
+
+    /**
+     * Reads a JSON array of rows or newline-delimited JSON objects
+     */
+    private class JsonRowReader implements RowReader {
+        private final JsonParser parser;
+        private boolean started;
+        private String rowError;
+
+        private JsonRowReader(InputStream body) throws IOException {
+            this.parser = objectMapper.getFactory().createParser(body);
+        }
+
+        @Override
+        public RateIngestRowDto next() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (!started) {
+                started = true;
+                if (token == JsonToken.START_ARRAY) {
+                    token = parser.nextToken();
+                }
+            }
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            // Read the whole object first, so a field of the wrong type rejects only this row
+            JsonNode node = objectMapper.readTree(parser);
+            rowError = null;
+            try {
+                return objectMapper.treeToValue(node, RateIngestRowDto.class);
+            } catch (MismatchedInputException e) {
+                rowError = e.getPath().isEmpty()
+                        ? "row must be an object"
+                        : e.getPath().getLast().getFieldName() + " has the wrong type";
+                return new RateIngestRowDto();
+            }
+        }
+
+        @Override
+        public long line() {
+            return parser.currentLocation().getLineNr();
+        }
+
+        @Override
+        public String rowError() {
+            return rowError;
+        }
+    }
+
+    /**
+     * Reads from,to,rate lines; a leading header line is skipped
+     */
+    private static class CsvRowReader implements RowReader {
+        private final BufferedReader reader;
+        private long line;
+
+        private CsvRowReader(InputStream body) {
+            this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public RateIngestRowDto next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank() || (line == 1 && text.toLowerCase().contains("rate"))) {
+                    continue;
+                }
+                String[] columns = text.split(",", -1);
+                RateIngestRowDto row = new RateIngestRowDto();
+                row.setFromCurrency(columns[0].trim());
+                row.setToCurrency(columns.length > 1 ? columns[1].trim() : null);
+                row.setRate(columns.length > 2 ? parseRate(columns[2].trim()) : null);
+                return row;
+            }
+            return null;
+        }
+
+        @Override
+        public long line() {
+            return line;
+        }
+
+        private BigDecimal parseRate(String text) {
+            try {
+                return new BigDecimal(text);
+            } catch (NumberFormatException e) {
+                return null; // Rejected by validation
+            }
+        }
+    }
+}
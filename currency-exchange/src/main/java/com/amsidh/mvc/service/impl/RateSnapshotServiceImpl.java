@@ -0,0 +1,136 @@
+package com.amsidh.mvc.service.impl;
+
+import com.amsidh.mvc.dto.RateDeltaDto;
+import com.amsidh.mvc.dto.RateEntryDto;
+import com.amsidh.mvc.dto.RateSnapshotDto;
+import com.amsidh.mvc.rate.RateChange;
+import com.amsidh.mvc.rate.RateMatrix;
+import com.amsidh.mvc.rate.RateMatrixRegistry;
+import com.amsidh.mvc.rate.RatePayload;
+import com.amsidh.mvc.service.RateSnapshotService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serves the full rate table and deltas between versions.
+ * Bodies are encoded once per published version and reused until the next version.
+ * Full deltas for versions no longer retained share one encoded table and only
+ * write each caller's own fromVersion around it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RateSnapshotServiceImpl implements RateSnapshotService {
+
+    private final RateMatrixRegistry rateMatrixRegistry;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicReference<EncodedVersion> encoded = new AtomicReference<>();
+
+    @Override
+    public RatePayload getSnapshot() {
+        return encodedVersion().snapshot();
+    }
+
+    /**
+     * Get the changes since a version, or empty when the caller is already current
+     */
+    @Override
+    public Optional<RatePayload> getChangesSince(long sinceVersion) {
+        EncodedVersion version = encodedVersion();
+        RateMatrix matrix = version.matrix();
+        if (sinceVersion == matrix.getVersion()) {
+            return Optional.empty();
+        }
+
+        RateMatrix older = sinceVersion < matrix.getVersion() ? rateMatrixRegistry.find(sinceVersion) : null;
+        if (older == null) {
+            return Optional.of(fullDelta(version, sinceVersion));
+        }
+        return Optional.of(version.deltas().computeIfAbsent(sinceVersion, k -> {
+            RateDeltaDto delta = RateDeltaDto.builder()
+                    .fromVersion(sinceVersion)
+                    .version(matrix.getVersion())
+                    .full(false)
+                    .changes(toEntries(matrix.changesSince(older)))
+                    .build();
+            return new RatePayload(matrix.getVersion(), RatePayload.etagOf(matrix.getVersion()), encode(delta));
+        }));
+    }
+
+    /**
+     * Write a full delta for a version no longer retained. Stale versions are unbounded, so
+     * only the table is cached and the envelope echoing the caller's version is written per request.
+     */
+    private RatePayload fullDelta(EncodedVersion version, long sinceVersion) {
+        long current = version.matrix().getVersion();
+        String changes = version.fullChanges().updateAndGet(cached ->
+                cached != null ? cached : new String(encode(toEntries(version.matrix().entries())), StandardCharsets.UTF_8));
+        ByteArrayOutputStream out = new ByteArrayOutputStream(changes.length() + 96);
+        // Same fields and order as RateDeltaDto
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeNumberField("fromVersion", sinceVersion);
+            generator.writeNumberField("version", current);
+            generator.writeBooleanField("full", true);
+            generator.writeFieldName("changes");
+            generator.writeRawValue(changes);
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode rate payload", e);
+        }
+        return new RatePayload(current, RatePayload.etagOf(current), out.toByteArray());
+    }
+
+    private EncodedVersion encodedVersion() {
+        RateMatrix matrix = rateMatrixRegistry.isLoaded() ? rateMatrixRegistry.current() : rateMatrixRegistry.reload();
+        EncodedVersion cached = encoded.get();
+        if (cached != null && cached.matrix().getVersion() == matrix.getVersion()) {
+            return cached;
+        }
+
+        RateSnapshotDto snapshot = RateSnapshotDto.builder()
+                .version(matrix.getVersion())
+                .rates(toEntries(matrix.entries()))
+                .build();
+        EncodedVersion fresh = new EncodedVersion(matrix,
+                new RatePayload(matrix.getVersion(), RatePayload.etagOf(matrix.getVersion()), encode(snapshot)),
+                new ConcurrentHashMap<>(), new AtomicReference<>());
+        // A concurrent request may have encoded the same version already; either copy is valid
+        encoded.compareAndSet(cached, fresh);
+        log.debug("Encoded rate snapshot version {} ({} bytes)", matrix.getVersion(), fresh.snapshot().body().length);
+        return fresh;
+    }
+
+    private List<RateEntryDto> toEntries(List<RateChange> changes) {
+        return changes.stream()
+                .map(change -> new RateEntryDto(change.fromCurrency(), change.toCurrency(), change.rate(),
+                        change.source(), change.pivotCurrency()))
+                .toList();
+    }
+
+    private byte[] encode(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode rate payload", e);
+        }
+    }
+
+    private record EncodedVersion(RateMatrix matrix, RatePayload snapshot, Map<Long, RatePayload> deltas,
+            AtomicReference<String> fullChanges) {
+    }
+}
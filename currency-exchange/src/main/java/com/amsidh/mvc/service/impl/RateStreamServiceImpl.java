@@ -0,0 +1,271 @@
+package com.amsidh.mvc.service.impl;
+
+import com.amsidh.mvc.dto.RateEventDto;
+import com.amsidh.mvc.rate.RateChange;
+import com.amsidh.mvc.rate.RateMatrix;
+import com.amsidh.mvc.rate.RateMatrixPublishedEvent;
+import com.amsidh.mvc.rate.RateMatrixRegistry;
+import com.amsidh.mvc.service.RateStreamService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes rate changes to subscribers as Server-Sent Events.
+ * Every event id is the snapshot version, so a client reconnecting with
+ * Last-Event-ID (or sinceVersion) receives only what it missed. Events are
+ * idempotent per version; a client may see the same change twice around a reconnect.
+ * <p>
+ * Each subscriber has its own bounded queue of versions, drained in order on a virtual
+ * thread of its own, so a slow subscriber only delays itself. Catch-up, live events and
+ * heartbeats all go through that queue. A subscriber that falls more than max-pending
+ * versions behind is completed; it reconnects with Last-Event-ID and catches up from history.
+ */
+@Slf4j
+@Service
+public class RateStreamServiceImpl implements RateStreamService {
+
+    private static final String RATE_EVENT = "rate";
+    private static final String VERSION_EVENT = "version";
+    private static final String RESYNC_EVENT = "resync";
+    private static final List<Set<DataWithMediaType>> HEARTBEAT =
+            List.of(SseEmitter.event().comment("heartbeat").build());
+
+    private final RateMatrixRegistry rateMatrixRegistry;
+    private final ObjectMapper objectMapper;
+    private final Duration emitterTimeout;
+    private final int maxPendingVersions;
+    private final ExecutorService sender;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    public RateStreamServiceImpl(RateMatrixRegistry rateMatrixRegistry, ObjectMapper objectMapper,
+            @Value("${currency-exchange.stream.timeout:PT30M}") Duration emitterTimeout,
+            @Value("${currency-exchange.stream.max-pending-versions:16}") int maxPendingVersions) {
+        this.rateMatrixRegistry = rateMatrixRegistry;
+        this.objectMapper = objectMapper;
+        this.emitterTimeout = emitterTimeout;
+        this.maxPendingVersions = maxPendingVersions;
+        this.sender = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("rate-stream-", 0).factory());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    @Override
+    public SseEmitter subscribe(Long sinceVersion) {
+        return subscribe(new SseEmitter(emitterTimeout.toMillis()), sinceVersion);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, Long sinceVersion) {
+        Subscriber subscriber = new Subscriber(emitter, maxPendingVersions);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        // Live events wait for the subscriber's lock, so the catch-up is always queued first
+        // and live versions it already covers are skipped
+        synchronized (subscriber) {
+            subscribers.add(subscriber);
+            RateMatrix matrix = rateMatrixRegistry.current();
+            List<Set<DataWithMediaType>> events = new ArrayList<>();
+            if (sinceVersion != null && sinceVersion != matrix.getVersion()) {
+                addCatchUp(events, sinceVersion, matrix);
+            }
+            events.add(SseEmitter.event()
+                    .id(Long.toString(matrix.getVersion()))
+                    .name(VERSION_EVENT)
+                    .data(Map.of("version", matrix.getVersion()), MediaType.APPLICATION_JSON)
+                    .build());
+            subscriber.version = matrix.getVersion();
+            subscriber.pending.add(events);
+        }
+        drain(subscriber);
+
+        log.debug("Rate stream subscribed from version {}, {} subscribers", sinceVersion, subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Queue the pairs changed by a newly published version for every subscriber.
+     * Runs on the publishing thread, so versions are queued in publish order; queuing
+     * never blocks, so slow subscribers never delay a reload.
+     */
+    @EventListener
+    public void onRateMatrixPublished(RateMatrixPublishedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        RateMatrix current = event.current();
+        String id = Long.toString(current.getVersion());
+        // Built once and shared, since every subscriber is sent the same bytes
+        List<Set<DataWithMediaType>> events = current.changesSince(event.previous()).stream()
+                .map(change -> SseEmitter.event()
+                        .id(id)
+                        .name(RATE_EVENT)
+                        .data(encode(change, current.getVersion()), MediaType.APPLICATION_JSON)
+                        .build())
+                .toList();
+        if (events.isEmpty()) {
+            return;
+        }
+
+        for (Subscriber subscriber : subscribers) {
+            boolean queued;
+            synchronized (subscriber) {
+                if (current.getVersion() <= subscriber.version) {
+                    continue; // Already covered by the subscriber's catch-up
+                }
+                subscriber.version = current.getVersion();
+                queued = subscriber.pending.offer(events);
+            }
+            if (queued) {
+                drain(subscriber);
+            } else {
+                dropLagging(subscriber);
+            }
+        }
+        log.debug("Queued {} rate changes of version {} for {} subscribers",
+                events.size(), current.getVersion(), subscribers.size());
+    }
+
+    /**
+     * Comment heartbeat keeps idle connections open through proxies and detects dead subscribers
+     */
+    @Scheduled(fixedDelayString = "${currency-exchange.stream.heartbeat-interval:PT30S}")
+    public void sendHeartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.pending.offer(HEARTBEAT)) {
+                drain(subscriber);
+            } else {
+                dropLagging(subscriber);
+            }
+        }
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Send the subscriber's queue in order on its own thread; at most one drain runs per subscriber
+     */
+    private void drain(Subscriber subscriber) {
+        if (!subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sender.execute(() -> {
+                try {
+                    List<Set<DataWithMediaType>> events;
+                    while ((events = subscriber.pending.poll()) != null) {
+                        for (Set<DataWithMediaType> event : events) {
+                            subscriber.emitter.send(event);
+                        }
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    subscribers.remove(subscriber);
+                    subscriber.emitter.completeWithError(e);
+                    return;
+                } finally {
+                    subscriber.draining.set(false);
+                }
+                // Something may have been queued after the last poll but before the flag was cleared
+                if (!subscriber.pending.isEmpty()) {
+                    drain(subscriber);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            subscriber.draining.set(false); // Shutting down
+        }
+    }
+
+    private void dropLagging(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            log.debug("Rate stream subscriber fell {} versions behind, completing it", maxPendingVersions);
+            // Completing waits for a send in progress, which may be the one that is stuck
+            try {
+                sender.execute(subscriber.emitter::complete);
+            } catch (RejectedExecutionException e) {
+                // Shutting down; the emitter goes with the server
+            }
+        }
+    }
+
+    private void addCatchUp(List<Set<DataWithMediaType>> events, long sinceVersion, RateMatrix matrix) {
+        RateMatrix older = sinceVersion < matrix.getVersion() ? rateMatrixRegistry.find(sinceVersion) : null;
+        String id = Long.toString(matrix.getVersion());
+        if (older == null) {
+            // Version no longer retained: tell the client to drop its copy, then replay the whole table
+            events.add(SseEmitter.event()
+                    .id(id)
+                    .name(RESYNC_EVENT)
+                    .data(Map.of("version", matrix.getVersion()), MediaType.APPLICATION_JSON)
+                    .build());
+        }
+
+        List<RateChange> changes = older == null ? matrix.entries() : matrix.changesSince(older);
+        for (RateChange change : changes) {
+            events.add(SseEmitter.event()
+                    .id(id)
+                    .name(RATE_EVENT)
+                    .data(encode(change, matrix.getVersion()), MediaType.APPLICATION_JSON)
+                    .build());
+        }
+    }
+
+    private String encode(RateChange change, long version) {
+        try {
+            return objectMapper.writeValueAsString(RateEventDto.builder()
+                    .fromCurrency(change.fromCurrency())
+                    .toCurrency(change.toCurrency())
+                    .rate(change.rate())
+                    .rateSource(change.source())
+                    .pivotCurrency(change.pivotCurrency())
+                    .version(version)
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode rate event", e);
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        // One entry per version (the catch-up is one entry), so the bound is in versions behind
+        private final BlockingQueue<List<Set<DataWithMediaType>>> pending;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Latest version queued; guarded by the subscriber's lock
+        private long version;
+
+        private Subscriber(SseEmitter emitter, int maxPendingVersions) {
+            this.emitter = emitter;
+            // One more slot than versions, so the initial catch-up never counts against the limit
+            this.pending = new ArrayBlockingQueue<>(maxPendingVersions + 1);
+        }
+    }
+}
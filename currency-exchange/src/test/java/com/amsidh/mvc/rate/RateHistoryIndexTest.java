@@ -0,0 +1,85 @@
+package com.amsidh.mvc.rate;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for RateHistoryIndex
+ * Verifies as-of lookups, copy-on-write appends and tombstones of removed pairs
+ */
+class RateHistoryIndexTest {
+
+    private static final Instant T1 = Instant.parse("2026-03-01T09:00:00Z");
+    private static final Instant T2 = Instant.parse("2026-03-01T10:00:00Z");
+    private static final Instant T3 = Instant.parse("2026-03-01T11:00:00Z");
+
+    private final RateHistoryIndex index = RateHistoryIndex.builder()
+            .add("EUR", "USD", new BigDecimal("1.100000"), T1.toEpochMilli())
+            .add("USD", "INR", new BigDecimal("83.000000"), T1.toEpochMilli())
+            .add("USD", "INR", new BigDecimal("83.500000"), T2.toEpochMilli())
+            .add("USD", "INR", new BigDecimal("84.000000"), T3.toEpochMilli())
+            .build();
+
+    @Test
+    void testRateAsOf() {
+        assertEquals(new BigDecimal("83.000000"), index.rateAsOf("USD", "INR", T1).rate());
+        assertEquals(new BigDecimal("83.000000"), index.rateAsOf("USD", "INR", T2.minusMillis(1)).rate());
+        RateHistoryEntry atT2 = index.rateAsOf("USD", "INR", T2);
+        assertEquals(new BigDecimal("83.500000"), atT2.rate());
+        assertEquals(T2, atT2.effectiveAt());
+        assertEquals(new BigDecimal("84.000000"), index.rateAsOf("USD", "INR", Instant.MAX).rate());
+        assertEquals(new BigDecimal("1.100000"), index.rateAsOf("EUR", "USD", T3).rate());
+        assertEquals(4, index.entryCount());
+    }
+
+    @Test
+    void testNoRateBeforeFirstEntry() {
+        assertNull(index.rateAsOf("USD", "INR", T1.minusSeconds(1)));
+        assertNull(index.rateAsOf("INR", "USD", T3));
+    }
+
+    @Test
+    void testAppendKeepsOriginalAndOrder() {
+        RateHistoryIndex appended = index.with(List.of(
+                new RateHistoryEntry("USD", "INR", new BigDecimal("83.200000"), T2.plusSeconds(60)),
+                new RateHistoryEntry("USD", "GBP", new BigDecimal("0.790000"), T3)));
+
+        assertEquals(new BigDecimal("83.200000"), appended.rateAsOf("USD", "INR", T2.plusSeconds(90)).rate());
+        assertEquals(new BigDecimal("84.000000"), appended.rateAsOf("USD", "INR", T3).rate());
+        assertEquals(new BigDecimal("0.790000"), appended.rateAsOf("USD", "GBP", T3).rate());
+        assertEquals(6, appended.entryCount());
+
+        // The original index is unchanged
+        assertEquals(new BigDecimal("83.500000"), index.rateAsOf("USD", "INR", T2.plusSeconds(90)).rate());
+        assertNull(index.rateAsOf("USD", "GBP", T3));
+    }
+
+    @Test
+    void testAppendSharesUntouchedPairs() {
+        RateHistoryIndex appended = index.with(List.of(
+                new RateHistoryEntry("USD", "INR", new BigDecimal("84.500000"), T3.plusSeconds(60))));
+
+        assertSame(index.timeline("EUR", "USD"), appended.timeline("EUR", "USD"));
+        assertNotSame(index.timeline("USD", "INR"), appended.timeline("USD", "INR"));
+    }
+
+    @Test
+    void testTombstoneEndsTheRateUntilReadded() {
+        Instant removedAt = T3.plusSeconds(60);
+        RateHistoryIndex removed = index.with(List.of(new RateHistoryEntry("USD", "INR", null, removedAt)));
+
+        assertEquals(new BigDecimal("84.000000"), removed.rateAsOf("USD", "INR", removedAt.minusMillis(1)).rate());
+        assertNull(removed.rateAsOf("USD", "INR", removedAt));
+        assertNull(removed.timeline("USD", "INR").latestRate());
+
+        RateHistoryIndex readded = removed.with(List.of(
+                new RateHistoryEntry("USD", "INR", new BigDecimal("85.000000"), removedAt.plusSeconds(60))));
+        assertNull(readded.rateAsOf("USD", "INR", removedAt.plusSeconds(30)));
+        assertEquals(new BigDecimal("85.000000"), readded.rateAsOf("USD", "INR", Instant.MAX).rate());
+    }
+}
@@ -0,0 +1,49 @@
+package com.amsidh.mvc.rate;
+
+import com.amsidh.mvc.entity.CurrencyExchange;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for RateMatrixSnapshotFile
+ * Verifies the binary encoding round trip and corruption detection
+ */
+class RateMatrixSnapshotFileTest {
+
+    private final RateMatrix matrix = RateMatrix.of(42L, List.of(
+            new CurrencyExchange(1, "USD", "INR", new BigDecimal("83.500000")),
+            new CurrencyExchange(2, "EUR", "USD", new BigDecimal("1.200000")),
+            new CurrencyExchange(3, "USD", "XAU", new BigDecimal("0.000500"))), List.of("USD"));
+
+    @Test
+    void testRoundTrip() {
+        RateMatrix restored = RateMatrixSnapshotFile.decode(ByteBuffer.wrap(RateMatrixSnapshotFile.encode(matrix)));
+
+        assertEquals(42L, restored.getVersion());
+        assertTrue(restored.hasSameRates(matrix));
+        assertEquals(new BigDecimal("100.200000"), restored.rate("EUR", "INR"));
+        assertEquals("USD", restored.pivot(restored.ordinal("EUR"), restored.ordinal("INR")));
+        assertEquals(RateSource.INVERSE, restored.source(restored.ordinal("INR"), restored.ordinal("USD")));
+    }
+
+    @Test
+    void testEmptyMatrix() {
+        RateMatrix restored = RateMatrixSnapshotFile.decode(
+                ByteBuffer.wrap(RateMatrixSnapshotFile.encode(RateMatrix.EMPTY)));
+        assertTrue(restored.isEmpty());
+    }
+
+    @Test
+    void testCorruptionIsDetected() {
+        byte[] bytes = RateMatrixSnapshotFile.encode(matrix);
+        bytes[bytes.length / 2] ^= 1;
+        assertThrows(IllegalStateException.class, () -> RateMatrixSnapshotFile.decode(ByteBuffer.wrap(bytes)));
+        assertThrows(IllegalStateException.class,
+                () -> RateMatrixSnapshotFile.decode(ByteBuffer.wrap(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 })));
+    }
+}
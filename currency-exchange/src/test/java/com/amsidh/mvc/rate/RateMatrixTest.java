@@ -0,0 +1,113 @@
+package com.amsidh.mvc.rate;
+
+import com.amsidh.mvc.entity.CurrencyExchange;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for RateMatrix
+ * Verifies ordinal lookups, missing pairs and change detection
+ */
+class RateMatrixTest {
+
+    private final RateMatrix matrix = RateMatrix.of(1L, List.of(
+            new CurrencyExchange(1, "USD", "INR", new BigDecimal("83.500000")),
+            new CurrencyExchange(2, "EUR", "USD", new BigDecimal("1.176471")),
+            new CurrencyExchange(3, "USD", "EUR", new BigDecimal("0.850000"))));
+
+    @Test
+    void testLookupByCode() {
+        assertEquals(new BigDecimal("83.500000"), matrix.rate("USD", "INR"));
+        assertEquals(new BigDecimal("0.850000"), matrix.rate("usd", "eur"));
+        assertEquals(3, matrix.size());
+        assertEquals(1L, matrix.getVersion());
+    }
+
+    @Test
+    void testMissingPairs() {
+        assertNull(matrix.rate("INR", "USD")); // Reverse pair is not stored
+        assertNull(matrix.rate("USD", "XYZ")); // Unknown currency
+        assertNull(matrix.rate(null, "USD"));
+        assertEquals(-1, matrix.ordinal("XYZ"));
+    }
+
+    @Test
+    void testOrdinalsAreDenseAndSorted() {
+        assertEquals("EUR", matrix.currency(0));
+        assertEquals("INR", matrix.currency(1));
+        assertEquals("USD", matrix.currency(2));
+        assertEquals(2, matrix.ordinal("USD"));
+    }
+
+    @Test
+    void testChangeDetection() {
+        RateMatrix same = RateMatrix.of(2L, List.of(
+                new CurrencyExchange(3, "USD", "EUR", new BigDecimal("0.85")),
+                new CurrencyExchange(1, "USD", "INR", new BigDecimal("83.5")),
+                new CurrencyExchange(2, "EUR", "USD", new BigDecimal("1.176471"))));
+        RateMatrix changed = RateMatrix.of(2L, List.of(
+                new CurrencyExchange(3, "USD", "EUR", new BigDecimal("0.86")),
+                new CurrencyExchange(1, "USD", "INR", new BigDecimal("83.5")),
+                new CurrencyExchange(2, "EUR", "USD", new BigDecimal("1.176471"))));
+
+        assertTrue(matrix.hasSameRates(same));
+        assertFalse(matrix.hasSameRates(changed));
+        assertFalse(matrix.hasSameRates(RateMatrix.EMPTY));
+    }
+
+    @Test
+    void testChangesSince() {
+        RateMatrix next = RateMatrix.of(2L, List.of(
+                new CurrencyExchange(1, "USD", "INR", new BigDecimal("84.100000")),
+                new CurrencyExchange(2, "EUR", "USD", new BigDecimal("1.176471")),
+                new CurrencyExchange(4, "USD", "GBP", new BigDecimal("0.750000"))));
+
+        List<RateChange> changes = next.changesSince(matrix);
+
+        assertEquals(3, changes.size());
+        assertTrue(changes.contains(new RateChange("USD", "INR", new BigDecimal("84.100000"), RateSource.DIRECT, null)));
+        assertTrue(changes.contains(new RateChange("USD", "GBP", new BigDecimal("0.750000"), RateSource.DIRECT, null)));
+        assertTrue(changes.contains(new RateChange("USD", "EUR", null, null, null))); // Removed pair
+        assertTrue(next.changesSince(next).isEmpty());
+        assertEquals(3, next.entries().size());
+    }
+
+    @Test
+    void testTriangulation() {
+        RateMatrix derived = RateMatrix.of(1L, List.of(
+                new CurrencyExchange(1, "USD", "INR", new BigDecimal("83.500000")),
+                new CurrencyExchange(2, "EUR", "USD", new BigDecimal("1.200000")),
+                new CurrencyExchange(3, "GBP", "EUR", new BigDecimal("1.100000")),
+                new CurrencyExchange(4, "CHF", "INR", new BigDecimal("90.000000"))), List.of("USD", "EUR"));
+
+        int usd = derived.ordinal("USD");
+        int eur = derived.ordinal("EUR");
+        int inr = derived.ordinal("INR");
+        int gbp = derived.ordinal("GBP");
+
+        // Stored pair is untouched
+        assertEquals(RateSource.DIRECT, derived.source(usd, inr));
+        assertNull(derived.pivot(usd, inr));
+
+        // Reverse of a stored pair
+        assertEquals(new BigDecimal("0.011976"), derived.rate("INR", "USD"));
+        assertEquals(RateSource.INVERSE, derived.source(inr, usd));
+
+        // One pivot: EUR -> USD -> INR
+        assertEquals(new BigDecimal("100.200000"), derived.rate(eur, inr));
+        assertEquals(RateSource.TRIANGULATED, derived.source(eur, inr));
+        assertEquals("USD", derived.pivot(eur, inr));
+
+        // Longer path: GBP -> EUR -> USD -> INR
+        assertEquals(new BigDecimal("110.220000"), derived.rate(gbp, inr));
+        assertEquals(RateSource.TRIANGULATED, derived.source(gbp, inr));
+
+        // Without pivots only stored pairs are present
+        assertNull(RateMatrix.of(1L, List.of(
+                new CurrencyExchange(1, "USD", "INR", new BigDecimal("83.500000"))), null).rate("INR", "USD"));
+    }
+}
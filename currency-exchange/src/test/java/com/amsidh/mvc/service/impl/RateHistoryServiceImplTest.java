@@ -0,0 +1,66 @@
+package com.amsidh.mvc.service.impl;
+
+import com.amsidh.mvc.dto.HistoricalRateDto;
+import com.amsidh.mvc.entity.CurrencyExchange;
+import com.amsidh.mvc.rate.RateMatrix;
+import com.amsidh.mvc.rate.RateMatrixPublishedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for RateHistoryServiceImpl
+ * Verifies that a failed history write neither reaches the publisher nor loses the change
+ */
+class RateHistoryServiceImplTest {
+
+    private final List<Object[]> inserted = new ArrayList<>();
+    private boolean databaseDown;
+
+    // Starts with an empty history table
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+        @Override
+        public void query(String sql, RowCallbackHandler rch) {
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            if (databaseDown) {
+                throw new DataAccessResourceFailureException("database down");
+            }
+            inserted.addAll(batchArgs);
+            return new int[batchArgs.size()];
+        }
+    };
+    private final RateHistoryServiceImpl service = new RateHistoryServiceImpl(jdbcTemplate);
+
+    @Test
+    void testFailedWriteIsRetriedWithTheNextVersion() {
+        RateMatrix v1 = matrix(1_000, "83.500000");
+        databaseDown = true;
+        assertDoesNotThrow(() -> service.onRateMatrixPublished(new RateMatrixPublishedEvent(RateMatrix.EMPTY, v1)));
+        assertTrue(service.getRateAsOf("USD", "INR", Instant.MAX).isEmpty());
+
+        databaseDown = false;
+        RateMatrix v2 = matrix(2_000, "83.500000");
+        service.onRateMatrixPublished(new RateMatrixPublishedEvent(v1, v2));
+
+        Optional<HistoricalRateDto> rate = service.getRateAsOf("usd", "inr", Instant.MAX);
+        assertEquals(new BigDecimal("83.500000"), rate.orElseThrow().getRate());
+        assertEquals(Instant.ofEpochMilli(2_000), rate.get().getEffectiveAt());
+        assertEquals(1, inserted.size());
+    }
+
+    private static RateMatrix matrix(long version, String rate) {
+        return RateMatrix.of(version, List.of(new CurrencyExchange(1, "USD", "INR", new BigDecimal(rate))));
+    }
+}
@@ -0,0 +1,128 @@
+package com.amsidh.mvc.service.impl;
+
+import com.amsidh.mvc.dto.IngestionResultDto;
+import com.amsidh.mvc.rate.RateMatrix;
+import com.amsidh.mvc.rate.RateMatrixRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for RateIngestionServiceImpl
+ * Verifies parsing of both feed formats, the insert/update split and the single reload after commit
+ */
+class RateIngestionServiceImplTest {
+
+    private final EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+    // Rows visible to another connection when each reload ran, i.e. committed
+    private final List<Integer> committedAtReload = new ArrayList<>();
+    private final RateMatrixRegistry registry = new RateMatrixRegistry(null, event -> {
+    }, null) {
+        @Override
+        public RateMatrix reload() {
+            committedAtReload.add(new JdbcTemplate(database)
+                    .queryForObject("SELECT COUNT(*) FROM currency_exchange", Integer.class));
+            return RateMatrix.EMPTY;
+        }
+
+        @Override
+        public RateMatrix current() {
+            return RateMatrix.EMPTY;
+        }
+    };
+    private final RateIngestionServiceImpl service = new RateIngestionServiceImpl(jdbcTemplate,
+            new DataSourceTransactionManager(database), registry, new ObjectMapper());
+
+    RateIngestionServiceImplTest() {
+        jdbcTemplate.execute("CREATE TABLE currency_exchange (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "from_currency VARCHAR(3) NOT NULL, to_currency VARCHAR(3) NOT NULL, "
+                + "rate DECIMAL(19, 6) NOT NULL, UNIQUE (from_currency, to_currency))");
+        jdbcTemplate.update("INSERT INTO currency_exchange (from_currency, to_currency, rate) VALUES ('USD', 'INR', 83)");
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+        ReflectionTestUtils.setField(service, "maxReportedErrors", 20);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void testCsvHeaderIsSkippedAndExistingPairsAreUpdated() throws Exception {
+        IngestionResultDto result = ingest("""
+                from,to,rate
+                usd,inr,84.25
+                USD,EUR,0.92
+                EUR,GBP,0.85
+                """, RateIngestionServiceImpl.TEXT_CSV);
+
+        assertEquals(3, result.getReceived());
+        assertEquals(2, result.getInserted());
+        assertEquals(1, result.getUpdated());
+        assertEquals(0, result.getRejected());
+        assertEquals(0, new BigDecimal("84.25").compareTo(jdbcTemplate.queryForObject(
+                "SELECT rate FROM currency_exchange WHERE from_currency = 'USD' AND to_currency = 'INR'",
+                BigDecimal.class)));
+        // One reload, after the whole feed was committed
+        assertEquals(List.of(3), committedAtReload);
+    }
+
+    @Test
+    void testHeaderIsOnlyDetectedOnTheFirstLine() throws Exception {
+        IngestionResultDto result = ingest("""
+                USD,EUR,0.92
+                from,to,rate
+                """, RateIngestionServiceImpl.TEXT_CSV);
+
+        assertEquals(2, result.getReceived());
+        assertEquals(1, result.getInserted());
+        assertEquals(List.of("line 2: currency codes must be 3 letters"), result.getErrors());
+    }
+
+    @Test
+    void testJsonTypeErrorRejectsOnlyThatRow() throws Exception {
+        IngestionResultDto result = ingest("""
+                [
+                  {"fromCurrency": "USD", "toCurrency": "EUR", "rate": "not a number"},
+                  {"fromCurrency": "USD", "toCurrency": "GBP", "rate": 0.79},
+                  ["USD", "JPY", 150]
+                ]
+                """, MediaType.APPLICATION_JSON);
+
+        assertEquals(3, result.getReceived());
+        assertEquals(1, result.getInserted());
+        assertEquals(2, result.getRejected());
+        assertEquals(List.of("line 2: rate has the wrong type", "line 4: row must be an object"), result.getErrors());
+    }
+
+    @Test
+    void testNoReloadWhenNothingWasWritten() throws Exception {
+        IngestionResultDto result = ingest("USD,USD,1\n", RateIngestionServiceImpl.TEXT_CSV);
+
+        assertEquals(1, result.getRejected());
+        assertTrue(committedAtReload.isEmpty());
+    }
+
+    private IngestionResultDto ingest(String body, MediaType contentType) throws Exception {
+        return service.ingest(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), contentType);
+    }
+}
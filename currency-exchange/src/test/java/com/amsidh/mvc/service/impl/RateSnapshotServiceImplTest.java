@@ -0,0 +1,61 @@
+package com.amsidh.mvc.service.impl;
+
+import com.amsidh.mvc.dto.RateDeltaDto;
+import com.amsidh.mvc.entity.CurrencyExchange;
+import com.amsidh.mvc.rate.RateMatrix;
+import com.amsidh.mvc.rate.RateMatrixRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for RateSnapshotServiceImpl
+ * Verifies that deltas answer the version each caller asked about
+ */
+class RateSnapshotServiceImplTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RateMatrix v2 = RateMatrix.of(2, List.of(new CurrencyExchange(1, "USD", "INR", new BigDecimal("84.000000"))));
+    // Only the current version is retained
+    private final RateMatrixRegistry registry = new RateMatrixRegistry(null, event -> {
+    }, null) {
+        @Override
+        public RateMatrix current() {
+            return v2;
+        }
+
+        @Override
+        public boolean isLoaded() {
+            return true;
+        }
+
+        @Override
+        public RateMatrix find(long version) {
+            return version == 2 ? v2 : null;
+        }
+    };
+    private final RateSnapshotServiceImpl service = new RateSnapshotServiceImpl(registry, objectMapper);
+
+    @Test
+    void testFullDeltaEchoesEachCallersVersion() throws Exception {
+        RateDeltaDto first = delta(1);
+        RateDeltaDto second = delta(0);
+
+        assertEquals(1, first.getFromVersion());
+        assertEquals(0, second.getFromVersion());
+        for (RateDeltaDto delta : List.of(first, second)) {
+            assertTrue(delta.isFull());
+            assertEquals(2, delta.getVersion());
+            assertEquals(new BigDecimal("84.000000"), delta.getChanges().getFirst().getRate());
+        }
+        assertTrue(service.getChangesSince(2).isEmpty());
+    }
+
+    private RateDeltaDto delta(long sinceVersion) throws Exception {
+        return objectMapper.readValue(service.getChangesSince(sinceVersion).orElseThrow().body(), RateDeltaDto.class);
+    }
+}
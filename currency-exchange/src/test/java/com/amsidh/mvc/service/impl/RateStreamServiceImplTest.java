@@ -0,0 +1,131 @@
+package com.amsidh.mvc.service.impl;
+
+import com.amsidh.mvc.entity.CurrencyExchange;
+import com.amsidh.mvc.rate.RateMatrix;
+import com.amsidh.mvc.rate.RateMatrixPublishedEvent;
+import com.amsidh.mvc.rate.RateMatrixRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for RateStreamServiceImpl
+ * Verifies ordered per-subscriber delivery and that a slow subscriber only delays itself
+ */
+class RateStreamServiceImplTest {
+
+    private final RateMatrix v1 = matrix(1, "83.500000");
+    private final RateMatrix v2 = matrix(2, "84.000000");
+    private final RateMatrix v3 = matrix(3, "84.500000");
+    private final AtomicReference<RateMatrix> current = new AtomicReference<>(v1);
+    private final RateMatrixRegistry registry = new RateMatrixRegistry(null, event -> {
+    }, null) {
+        @Override
+        public RateMatrix current() {
+            return current.get();
+        }
+
+        @Override
+        public RateMatrix find(long version) {
+            return version == 1 ? v1 : null;
+        }
+    };
+    private final RateStreamServiceImpl service = new RateStreamServiceImpl(registry, new ObjectMapper(),
+            Duration.ofMinutes(1), 2);
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void testCatchUpIsSentBeforeLiveEvents() throws Exception {
+        current.set(v2);
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        service.subscribe(emitter, 1L);
+        // Already covered by the catch-up
+        service.onRateMatrixPublished(new RateMatrixPublishedEvent(v1, v2));
+        current.set(v3);
+        service.onRateMatrixPublished(new RateMatrixPublishedEvent(v2, v3));
+
+        emitter.awaitEvents(3);
+        assertEquals(List.of("id:2 event:rate", "id:2 event:version", "id:3 event:rate"), emitter.events);
+    }
+
+    @Test
+    void testSlowSubscriberOnlyDelaysItself() throws Exception {
+        CountDownLatch stuck = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(stuck);
+        RecordingEmitter fast = new RecordingEmitter(null);
+        service.subscribe(slow, null);
+        service.subscribe(fast, null);
+
+        RateMatrix previous = v1;
+        for (long version = 2; version <= 5; version++) {
+            RateMatrix next = matrix(version, "8" + version + ".000000");
+            service.onRateMatrixPublished(new RateMatrixPublishedEvent(previous, next));
+            previous = next;
+        }
+
+        fast.awaitEvents(5);
+        assertEquals("id:5 event:rate", fast.events.getLast());
+        // The stuck subscriber fell more than 2 versions behind and was let go
+        assertEquals(1, service.subscriberCount());
+        stuck.countDown();
+    }
+
+    private static RateMatrix matrix(long version, String rate) {
+        return RateMatrix.of(version, List.of(new CurrencyExchange(1, "USD", "INR", new BigDecimal(rate))));
+    }
+
+    /**
+     * Records the id and name of each event; optionally blocks every send until released
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release;
+
+        private RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) {
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            String text = items.stream()
+                    .map(item -> item.getData().toString())
+                    .collect(Collectors.joining());
+            String id = text.substring(text.indexOf("id:") + 3, text.indexOf('\n', text.indexOf("id:")));
+            String name = text.substring(text.indexOf("event:") + 6, text.indexOf('\n', text.indexOf("event:")));
+            events.add("id:" + id + " event:" + name);
+        }
+
+        private void awaitEvents(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (events.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(count, events.size(), () -> "events: " + events);
+        }
+    }
+}